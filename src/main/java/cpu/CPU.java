@@ -1,55 +1,46 @@
 package cpu;
 
-import cpu.instruction.Instruction;
-import cpu.instruction.Instructions;
 import cpu.interrupt.InterruptManager;
+import cpu.jit.BlockEngine;
+import cpu.scheduler.Scheduler;
 import cpu.timer.Timers;
 import input.InputManager;
 import memory.AddressSpace;
 import memory.MMU;
 import ppu.*;
 import ppu.oam.SpriteManager;
+import ppu.sink.FrameHashSink;
+import ppu.sink.NullFrameSink;
+import ppu.sink.RingBufferFrameSink;
 
-import javax.swing.*;
-import java.awt.*;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 
 public class CPU {
 
     private AddressSpace memory;
 
-    private long cycleCounter;
+    // Owns the cycle counter, subsystems are only run when their next event is due
+    private final Scheduler scheduler;
 
     private int freq;
 
     private static final int TILESET_SCALE = 1;
     private static final int BGMAP_SCALE = 1;
+    private static final int RING_FRAMES = 8;
 
-    public CPU(MMU mmu, int freq) {
+    public CPU(MMU mmu, int freq, Scheduler scheduler) {
         this.memory = mmu;
         this.freq = freq;
-    }
-
-    public int loadFile(String path, int pointer) throws IOException {
-        byte[] program = Files.readAllBytes(new File(path).toPath());
-
-        pointer = 0x00;
-        for (byte x : program) {
-            memory.set(pointer, x & 0xFF);
-            pointer++;
-        }
-        return program.length;
+        this.scheduler = scheduler;
     }
 
     public long addCycles(int cycles) {
-        cycleCounter += cycles;
-        return cycleCounter;
+        scheduler.advance(cycles);
+        return scheduler.getNow();
     }
 
     public long getCycles() {
-        return cycleCounter;
+        return scheduler.getNow();
     }
 
     public static void main(String[] args) throws IOException, InterruptedException {
@@ -73,16 +64,16 @@ public class CPU {
 
         var registers = new Registers();
         var memory = new MMU(inputManager, sprites, tiles, filePath, biosPath);
-        var gpuRegsManager = new GPURegsManager(memory);
-        var cpu = new CPU(memory, freq);
-        var timers = new Timers(memory, cpu.getCycles());
-        var interruptManager = new InterruptManager(cpu, registers, memory);
-        inputManager.setAddressSpace(memory);
-
-        tiles.setAddressSpace(memory);
-
-        var display = new Display(DISPLAY_SCALE);
-        display.setPreferredSize(new Dimension(160 * DISPLAY_SCALE, 144 * DISPLAY_SCALE));
+        // -Despressogb.footprint=true prints the heap taken by emulated memory
+        if (Boolean.getBoolean("espressogb.footprint"))
+            System.out.println(memory.getFootprint());
+        var gpuRegsManager = new GPURegsManager();
+        var scheduler = new Scheduler();
+        var cpu = new CPU(memory, freq, scheduler);
+        var timers = new Timers(memory.getInterruptController(), scheduler);
+        memory.setTimers(timers);
+        var interruptManager = new InterruptManager(cpu, registers, memory, memory.getInterruptController());
+        inputManager.setInterruptController(memory.getInterruptController());
 
 //        var tileSetDisplay = new TileDisplay(tiles, gpuRegsManager, TILESET_SCALE);
 //        tileSetDisplay.setPreferredSize(new Dimension(150 * TILESET_SCALE, 200 * TILESET_SCALE));
@@ -105,26 +96,42 @@ public class CPU {
 //        tileMapWindow.setVisible(true);
 //        tileMapWindow.pack();
 
-        var mainWindow = new JFrame("screen");
-        mainWindow.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-//        mainWindow.setLocationRelativeTo(tileMapWindow);
-        mainWindow.setContentPane(display);
-        mainWindow.setResizable(false);
-        mainWindow.setVisible(true);
-        mainWindow.pack();
-        mainWindow.addKeyListener(inputManager);
+        // -Djava.awt.headless=true runs without a window, -Despressogb.frameSink=null|hash|ring picks where frames go
+        FrameSink frameSink;
+        if (Boolean.getBoolean("java.awt.headless"))
+            frameSink = createSink(System.getProperty("espressogb.frameSink", "hash"));
+        else
+            frameSink = Display.openWindow(DISPLAY_SCALE, inputManager);
 
-        var ppu = new PPU(memory, gpuRegsManager, sprites, display, tiles);
-
-        new Thread(display).start();
-//        new Thread(tileSetDisplay).start();
-//        new Thread(mapDisplay).start();
+        var ppu = new PPU(gpuRegsManager, sprites, frameSink, tiles, scheduler, memory.getInterruptController());
+        memory.setPPU(ppu);
 
 
         int currentCycles = 0;
         int desiredCycles = cpu.freq;
 
-        while (true) {
+        // -Despressogb.engine=jit runs code in compiled basic blocks instead of one instruction at a time
+        ExecutionEngine engine;
+        if ("jit".equals(System.getProperty("espressogb.engine"))) {
+            var blockEngine = new BlockEngine(registers, memory, interruptManager, scheduler);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                blockEngine.saveDiskCache();
+                System.out.println(blockEngine.getMetrics());
+            }));
+            engine = blockEngine;
+        } else {
+            engine = new Interpreter(registers, memory, interruptManager, scheduler);
+        }
+
+        // -Despressogb.idleSkip=false runs polling loops instead of skipping them
+        var idleLoops = "false".equals(System.getProperty("espressogb.idleSkip"))
+                ? null
+                : new IdleLoopDetector(registers, memory, scheduler, ppu);
+
+        // -Despressogb.frames=n stops after n frames
+        var frames = Long.getLong("espressogb.frames", 0);
+
+        while (frames == 0 || ppu.getFrameCount() < frames) {
 
             if (registers.getPC() == 0x100)
                 memory.setAfterBios();
@@ -136,35 +143,22 @@ public class CPU {
                 interruptManager.handleInterrupts();
             }
 
-            Instruction instr = Instructions.get(0x00);
-            Context context = instr.getContext();
-
-            if (!interruptManager.isHalted()) {
-                boolean prefixed = false;
-                int opcode = memory.get(registers.incPC());
-
-                if (opcode == 0xCB) {
-                    prefixed = true;
-                    opcode = memory.get(registers.incPC());
-                }
-
-                instr = prefixed ? Instructions.getPrefixed(opcode) : Instructions.get(opcode);
-                context = instr.getContext();
-
-//            System.out.println(
-//                    String.format("PC %04X - %s", prefixed ? registers.getPC() - 1 : registers.getPC(), instr.getLabel())
-//            );
-
-                int accumulator = 0;
-                for (var operation : instr.getOperations()) {
-                    accumulator = operation.execute(registers, memory, accumulator, context, interruptManager);
+            // Only an event can raise the interrupt that ends HALT, so a halted CPU skips straight to the next one
+            // PPU and timers only run once the clock reaches their next deadline, the engine moves it as it executes
+            int cycles;
+            if (interruptManager.isHalted()) {
+                cycles = scheduler.cyclesToNextEvent();
+                cpu.addCycles(cycles);
+            } else {
+                var pc = registers.getPC();
+                cycles = engine.execute();
+                // Execution going back to where it started may have closed a polling loop
+                if (idleLoops != null && registers.getPC() <= pc) {
+                    var skipped = idleLoops.onBackwardJump(registers.getPC());
+                    cpu.addCycles(skipped);
+                    cycles += skipped;
                 }
             }
-
-            var cycles = instr.getCycles(context);
-            cpu.addCycles(cycles);
-            ppu.step(cycles);
-            timers.step(cpu.getCycles());
             currentCycles += cycles;
 
             if (currentCycles > desiredCycles) {
@@ -177,6 +171,20 @@ public class CPU {
                 currentCycles = 0;
             }
         }
+
+        if (frameSink instanceof FrameHashSink)
+            System.out.println(String.format("Frame %d hash %016X", ppu.getFrameCount(),
+                    ((FrameHashSink) frameSink).getLastHash()));
+        System.exit(0);
+    }
+
+    private static FrameSink createSink(String name) {
+        switch (name) {
+            case "null": return new NullFrameSink();
+            case "hash": return new FrameHashSink();
+            case "ring": return new RingBufferFrameSink(RING_FRAMES);
+            default: throw new IllegalStateException(String.format("Unknown frame sink %s", name));
+        }
     }
 
 }
@@ -21,4 +21,10 @@ public class Context {
     public void setConditionTrue(boolean conditionTrue) {
         this.conditionTrue = conditionTrue;
     }
+
+    // Context is reused between instructions, so it has to be cleared before each one
+    public void reset() {
+        contextValue = 0;
+        conditionTrue = false;
+    }
 }
@@ -0,0 +1,7 @@
+package cpu;
+
+public interface ExecutionEngine {
+
+    // Executes code starting at the current PC, moves the clock forward and returns the number of cycles it took
+    int execute();
+}
@@ -2,9 +2,16 @@ package cpu;
 
 import static cpu.BitUtils.*;
 
+/*
+ * Flags are evaluated lazily. Arithmetic ops only record their kind and operands, a flag is computed when it's read.
+ * Most flags are overwritten by the next ALU op before anything looks at them, so they are never computed at all.
+ * Setting a single flag or reading the whole byte materializes the pending op into the F register first.
+ * The F byte itself lives in the register file, this is a view on it.
+ * */
 public class FlagsReg {
 
-    private int f;
+    private final byte[] regs;
+    private final int index;
 
     public static final int Z_FLAG = 7;
 
@@ -14,53 +21,171 @@ public class FlagsReg {
 
     public static final int C_FLAG = 4;
 
+    private static final int Z_MASK = 1 << Z_FLAG;
+    private static final int N_MASK = 1 << N_FLAG;
+    private static final int H_MASK = 1 << H_FLAG;
+    private static final int C_MASK = 1 << C_FLAG;
+
+    // Kind of the pending op, the F byte is up to date when it's NONE
+    private static final int NONE = 0;
+    // a + b + carry, writes Z N H C
+    private static final int ADD = 1;
+    // a - b - carry, writes Z N H C
+    private static final int SUB = 2;
+    // a + 1, writes Z N H, carry holds the preserved C
+    private static final int INC = 3;
+    // a - 1, writes Z N H, carry holds the preserved C
+    private static final int DEC = 4;
+    // a + b on 16 bits, writes N H C, carry holds the preserved Z
+    private static final int ADD16 = 5;
+
+    private int op = NONE;
+    private int a;
+    private int b;
+    private int carry;
+
     public FlagsReg(int f) {
+        this(new byte[1], 0);
         isByte(f);
-        this.f = f;
+        regs[index] = (byte) f;
     }
 
     public FlagsReg() {
+        this(new byte[1], 0);
+    }
+
+    FlagsReg(byte[] regs, int index) {
+        this.regs = regs;
+        this.index = index;
+    }
+
+    private int f() {
+        return regs[index] & 0xFF;
     }
 
     public boolean isZFlag() {
-        return getByteBit(f, Z_FLAG);
+        switch (op) {
+            case NONE: return (f() & Z_MASK) != 0;
+            case ADD: return ((a + b + carry) & 0xFF) == 0;
+            case SUB: return ((a - b - carry) & 0xFF) == 0;
+            case INC: return ((a + 1) & 0xFF) == 0;
+            case DEC: return ((a - 1) & 0xFF) == 0;
+            case ADD16: return carry != 0;
+            default: throw new IllegalStateException(String.format("Unknown flags op %d", op));
+        }
     }
 
     public boolean isNFlag() {
-        return getByteBit(f, N_FLAG);
+        switch (op) {
+            case NONE: return (f() & N_MASK) != 0;
+            case SUB:
+            case DEC: return true;
+            default: return false;
+        }
     }
 
     public boolean isHFlag() {
-        return getByteBit(f, H_FLAG);
+        switch (op) {
+            case NONE: return (f() & H_MASK) != 0;
+            case ADD: return ((a & 0xF) + (b & 0xF) + carry) > 0xF;
+            case SUB: return ((a ^ b ^ ((a - b - carry) & 0xFF)) & 0x10) != 0;
+            case INC: return (a & 0xF) == 0xF;
+            case DEC: return (a & 0xF) == 0;
+            case ADD16: return ((a & 0xFFF) + (b & 0xFFF)) > 0xFFF;
+            default: throw new IllegalStateException(String.format("Unknown flags op %d", op));
+        }
     }
 
     public boolean isCFlag() {
-        return getByteBit(f, C_FLAG);
+        switch (op) {
+            case NONE: return (f() & C_MASK) != 0;
+            case ADD: return ((a & 0xFF) + b + carry) > 0xFF;
+            case SUB: return a - b - carry < 0;
+            case INC:
+            case DEC: return carry != 0;
+            case ADD16: return ((a & 0xFFFF) + b) > 0xFFFF;
+            default: throw new IllegalStateException(String.format("Unknown flags op %d", op));
+        }
     }
 
     public void setZFlag(boolean value) {
-        f = setByteBit(f, Z_FLAG, value);
+        materialize();
+        regs[index] = (byte) setByteBit(f(), Z_FLAG, value);
     }
 
     public void setNFlag(boolean value) {
-        f = setByteBit(f, N_FLAG, value);
+        materialize();
+        regs[index] = (byte) setByteBit(f(), N_FLAG, value);
     }
 
     public void setHFlag(boolean value) {
-        f = setByteBit(f, H_FLAG, value);
+        materialize();
+        regs[index] = (byte) setByteBit(f(), H_FLAG, value);
     }
 
     public void setCFlag(boolean value) {
-        f = setByteBit(f, C_FLAG, value);
+        materialize();
+        regs[index] = (byte) setByteBit(f(), C_FLAG, value);
+    }
+
+    // 8 bit a + b + carry
+    public void setAdd(int a, int b, int carry) {
+        record(ADD, a, b, carry);
+    }
+
+    // 8 bit a - b - carry, also used by CP
+    public void setSub(int a, int b, int carry) {
+        record(SUB, a, b, carry);
+    }
+
+    // 8 bit increment of a, C is kept
+    public void setInc(int a) {
+        record(INC, a, 0, isCFlag() ? 1 : 0);
+    }
+
+    // 8 bit decrement of a, C is kept
+    public void setDec(int a) {
+        record(DEC, a, 0, isCFlag() ? 1 : 0);
+    }
+
+    // 16 bit a + b, Z is kept
+    public void setAdd16(int a, int b) {
+        record(ADD16, a, b, isZFlag() ? 1 : 0);
+    }
+
+    // For ops whose flags are as cheap to compute as to record, e.g. logic ops and shifts
+    public void set(boolean z, boolean n, boolean h, boolean c) {
+        op = NONE;
+        regs[index] = (byte) ((z ? Z_MASK : 0) | (n ? N_MASK : 0) | (h ? H_MASK : 0) | (c ? C_MASK : 0));
+    }
+
+    private void record(int op, int a, int b, int carry) {
+        this.op = op;
+        this.a = a;
+        this.b = b;
+        this.carry = carry;
+    }
+
+    void materialize() {
+        if (op == NONE)
+            return;
+        regs[index] = (byte) ((isZFlag() ? Z_MASK : 0)
+                | (isNFlag() ? N_MASK : 0)
+                | (isHFlag() ? H_MASK : 0)
+                | (isCFlag() ? C_MASK : 0)
+                | (f() & 0x0F));
+        op = NONE;
     }
 
     public int getByte() {
-        return f & 0xFF;
+        materialize();
+        return f();
     }
 
     public void setFlagsByte(int value) {
         isByte(value);
-        f = value & 0xF0;
+        op = NONE;
+        regs[index] = (byte) (value & 0xF0);
     }
 
 }
@@ -0,0 +1,186 @@
+package cpu;
+
+import cpu.instruction.Instruction;
+import cpu.instruction.Instructions;
+import cpu.scheduler.Scheduler;
+import cpu.timer.TimerRegs;
+import memory.MMU;
+import ppu.PPU;
+
+/*
+ * Finds ROM loops that only poll memory, e.g. waiting for LY or STAT to change, and skips their iterations.
+ * A loop qualifies when it's a few bytes long, ends in a jump back to its start and is built only from loads,
+ * AND/OR/CP and BIT. Those leave the same registers and flags behind every iteration, so while no event runs
+ * nothing they read can change and the iterations up to the next event can be skipped without running them.
+ * LY and the STAT mode change without an event, the skip also stops at the next PPU mode change.
+ * DIV and TIMA change between events, loops reading them are never skipped.
+ * A skip only happens after a whole iteration ran undisturbed, no event or interrupt in between.
+ * */
+public class IdleLoopDetector {
+
+    private static final int MAX_LOOP_BYTES = 16;
+    private static final int BOOT_SIZE = 0x0100;
+    private static final int BANK_SIZE = 0x4000;
+
+    // Verdicts, 0 when the loop was not analyzed yet
+    private static final int NOT_IDLE = -1;
+    // Set on top of the iteration cycles when the loop reads through HL
+    private static final int READS_HL = 1 << 16;
+    private static final int CYCLES_MASK = READS_HL - 1;
+
+    private final Registers registers;
+    private final MMU mmu;
+    private final Scheduler scheduler;
+    private final PPU ppu;
+    private final Context context = new Context();
+
+    // -Despressogb.idleSkip.log=true prints every idle loop when it's found
+    private final boolean log = Boolean.getBoolean("espressogb.idleSkip.log");
+
+    // Per ROM bank and loop start, index 0 is the boot ROM
+    private final int[][] verdicts;
+
+    // Last arrival at the start of an idle loop
+    private int lastTarget = -1;
+    private long lastArrival;
+    private long lastDeadline;
+
+    public IdleLoopDetector(Registers registers, MMU mmu, Scheduler scheduler, PPU ppu) {
+        this.registers = registers;
+        this.mmu = mmu;
+        this.scheduler = scheduler;
+        this.ppu = ppu;
+        this.verdicts = new int[mmu.getRomBankCount() + 1][];
+    }
+
+    // Called after execution jumped back to target, returns the number of cycles to skip
+    public int onBackwardJump(int target) {
+        if (target >= BANK_SIZE * 2) {
+            lastTarget = -1;
+            return 0;
+        }
+
+        var verdict = getVerdict(target);
+        var now = scheduler.getNow();
+        var deadline = scheduler.getNextDeadline();
+        if (ppu != null)
+            deadline = Math.min(deadline, ppu.getNextModeChange());
+        if (verdict == NOT_IDLE || deadline == Scheduler.NEVER) {
+            lastTarget = -1;
+            return 0;
+        }
+
+        var iteration = verdict & CYCLES_MASK;
+        var undisturbed = target == lastTarget && now - lastArrival == iteration && deadline == lastDeadline;
+        lastTarget = target;
+        lastArrival = now;
+        lastDeadline = deadline;
+
+        if (!undisturbed || ((verdict & READS_HL) != 0 && isCounter(registers.getHL())))
+            return 0;
+
+        // Whole iterations only, the loop is left on its start with the state it had
+        var skipped = (int) ((deadline - now) / iteration * iteration);
+        lastArrival += skipped;
+        return skipped;
+    }
+
+    private int getVerdict(int target) {
+        var bank = bankOf(target);
+        var verdicts = this.verdicts[bank + 1];
+        if (verdicts == null)
+            verdicts = this.verdicts[bank + 1] = new int[BANK_SIZE];
+
+        var offset = target & (BANK_SIZE - 1);
+        if (verdicts[offset] == 0) {
+            verdicts[offset] = analyze(target);
+            if (log && verdicts[offset] != NOT_IDLE)
+                System.out.println(String.format("Idle loop in ROM %04X at %s:%04X, %d cycles per iteration",
+                        mmu.getGlobalChecksum(), bank < 0 ? "boot" : String.format("%02X", bank), target,
+                        verdicts[offset] & CYCLES_MASK));
+        }
+        return verdicts[offset];
+    }
+
+    private int bankOf(int address) {
+        if (address < BOOT_SIZE && !mmu.isAfterBios())
+            return -1;
+        if (address >= BANK_SIZE)
+            return mmu.getRomBank();
+        return 0;
+    }
+
+    // Cycles of one iteration, possibly with READS_HL, or NOT_IDLE
+    private int analyze(int target) {
+        var flags = 0;
+        var cycles = 0;
+        var address = target;
+        while (address - target < MAX_LOOP_BYTES) {
+            var opcode = mmu.get(address);
+            Instruction instr;
+            if (opcode == 0xCB) {
+                var prefixed = mmu.get(address + 1);
+                // BIT b,r only
+                if (prefixed < 0x40 || prefixed > 0x7F)
+                    return NOT_IDLE;
+                if ((prefixed & 0x07) == 0x06)
+                    flags |= READS_HL;
+                instr = Instructions.getPrefixed(prefixed);
+                address += 2;
+            } else {
+                if (!isPollOp(opcode))
+                    return NOT_IDLE;
+                if (readsHL(opcode))
+                    flags |= READS_HL;
+                if ((opcode == 0xF0 && isCounter(0xFF00 | mmu.get(address + 1)))
+                        || (opcode == 0xFA && isCounter(mmu.get(address + 1) | mmu.get(address + 2) << 8)))
+                    return NOT_IDLE;
+                instr = Instructions.get(opcode);
+                address += 1 + instr.getImmediateBytes();
+            }
+
+            context.reset();
+            if (isJump(opcode)) {
+                var destination = opcode == 0xC3 || (opcode & 0xE7) == 0xC2
+                        ? mmu.get(address - 2) | mmu.get(address - 1) << 8
+                        : (address + (byte) mmu.get(address - 1)) & 0xFFFF;
+                if (destination != target)
+                    return NOT_IDLE;
+                // The iteration that loops again takes the jump
+                context.setConditionTrue(true);
+                return flags | (cycles + instr.getCycles(context));
+            }
+            cycles += instr.getCycles(context);
+        }
+        return NOT_IDLE;
+    }
+
+    private static boolean isPollOp(int opcode) {
+        return opcode == 0x00
+                // LD r,n, not LD (HL),n
+                || (opcode < 0x40 && (opcode & 0x07) == 0x06 && opcode != 0x36)
+                // LD r,(HL), H and L are not written to
+                || opcode == 0x46 || opcode == 0x4E || opcode == 0x56 || opcode == 0x5E || opcode == 0x7E
+                // LDH A,(n), LD A,(nn)
+                || opcode == 0xF0 || opcode == 0xFA
+                // AND, OR and CP, XOR is left out as it does not give the same result twice
+                || (opcode >= 0xA0 && opcode <= 0xA7) || (opcode >= 0xB0 && opcode <= 0xBF)
+                || opcode == 0xE6 || opcode == 0xF6 || opcode == 0xFE
+                || isJump(opcode);
+    }
+
+    // JR, JR cc, JP, JP cc
+    private static boolean isJump(int opcode) {
+        return opcode == 0x18 || (opcode & 0xE7) == 0x20 || opcode == 0xC3 || (opcode & 0xE7) == 0xC2;
+    }
+
+    private static boolean readsHL(int opcode) {
+        return opcode == 0x46 || opcode == 0x4E || opcode == 0x56 || opcode == 0x5E || opcode == 0x7E
+                || opcode == 0xA6 || opcode == 0xB6 || opcode == 0xBE;
+    }
+
+    // Registers that count between events
+    private static boolean isCounter(int address) {
+        return address == TimerRegs.DIV.getAddress() || address == TimerRegs.TIMA.getAddress();
+    }
+}
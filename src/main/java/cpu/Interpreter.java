@@ -0,0 +1,39 @@
+package cpu;
+
+import cpu.instruction.Instructions;
+import cpu.interrupt.InterruptManager;
+import cpu.scheduler.Scheduler;
+import memory.AddressSpace;
+
+public class Interpreter implements ExecutionEngine {
+
+    private final Registers registers;
+    private final AddressSpace addressSpace;
+    private final InterruptManager interruptManager;
+    private final Scheduler scheduler;
+
+    // Single context reused by every executed instruction, so the interpreter does not allocate
+    private final Context context = new Context();
+
+    public Interpreter(Registers registers, AddressSpace addressSpace, InterruptManager interruptManager, Scheduler scheduler) {
+        this.registers = registers;
+        this.addressSpace = addressSpace;
+        this.interruptManager = interruptManager;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public int execute() {
+        int opcode = addressSpace.get(registers.incPC());
+
+        var instr = opcode == 0xCB
+                ? Instructions.getPrefixed(addressSpace.get(registers.incPC()))
+                : Instructions.get(opcode);
+
+//        System.out.println(String.format("PC %04X - %s", registers.getPC(), instr.getLabel()));
+
+        var cycles = instr.execute(registers, addressSpace, context, interruptManager);
+        scheduler.advance(cycles);
+        return cycles;
+    }
+}
@@ -1,25 +1,33 @@
 package cpu;
 
 public enum RegEnum {
-    A(RegEnum.SINGLE),
-    F(RegEnum.SINGLE),
-    B(RegEnum.SINGLE),
-    C(RegEnum.SINGLE),
-    D(RegEnum.SINGLE),
-    E(RegEnum.SINGLE),
-    H(RegEnum.SINGLE),
-    L(RegEnum.SINGLE),
-    SP(RegEnum.DOUBLE),
-    PC(RegEnum.DOUBLE),
-    AF(RegEnum.DOUBLE),
-    BC(RegEnum.DOUBLE),
-    DE(RegEnum.DOUBLE),
-    HL(RegEnum.DOUBLE);
+    A(RegEnum.SINGLE, Registers.A),
+    F(RegEnum.SINGLE, Registers.F),
+    B(RegEnum.SINGLE, Registers.B),
+    C(RegEnum.SINGLE, Registers.C),
+    D(RegEnum.SINGLE, Registers.D),
+    E(RegEnum.SINGLE, Registers.E),
+    H(RegEnum.SINGLE, Registers.H),
+    L(RegEnum.SINGLE, Registers.L),
+    SP(RegEnum.DOUBLE, Registers.SP),
+    PC(RegEnum.DOUBLE, Registers.PC),
+    AF(RegEnum.DOUBLE, Registers.A),
+    BC(RegEnum.DOUBLE, Registers.B),
+    DE(RegEnum.DOUBLE, Registers.D),
+    HL(RegEnum.DOUBLE, Registers.H);
 
     public final int size;
 
-    private RegEnum(int size) {
+    // Offset in the register file, pairs start at their high register
+    public final int index;
+
+    // F and AF have to bring the lazily evaluated flags up to date before they're read
+    public final boolean containsFlags;
+
+    private RegEnum(int size, int index) {
         this.size = size;
+        this.index = index;
+        this.containsFlags = index == Registers.F || (size == DOUBLE && index == Registers.A);
     }
 
     public static final int SINGLE = 1;
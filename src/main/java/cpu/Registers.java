@@ -1,200 +1,146 @@
 package cpu;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
 import static cpu.BitUtils.isByte;
 import static cpu.BitUtils.isShort;
 
+/*
+ * All registers live in one byte array. Pairs are stored high byte first, so a pair is a big endian short
+ * at the offset of its high register and both the 8 and 16 bit views are a single array access.
+ * RegEnum carries the offset, get/set by enum are plain indexed loads and stores.
+ * */
 public class Registers {
 
-    private int a;
-    private int b;
-    private int c;
-    private int d;
-    private int e;
-    private FlagsReg f;
-    private int h;
-    private int l;
+    public static final int A = 0;
+    public static final int F = 1;
+    public static final int B = 2;
+    public static final int C = 3;
+    public static final int D = 4;
+    public static final int E = 5;
+    public static final int H = 6;
+    public static final int L = 7;
+    public static final int SP = 8;
+    public static final int PC = 10;
+
+    public static final int SIZE = 12;
+
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
 
-    private int sp;
-    private int pc;
+    private final byte[] regs = new byte[SIZE];
+
+    // A view on regs[F], also holds the pending lazy flags op
+    private final FlagsReg f;
 
     public Registers() {
-        f = new FlagsReg();
+        f = new FlagsReg(regs, F);
     }
 
     public int get(RegEnum reg) {
-        if (reg.size == RegEnum.SINGLE) {
-            switch (reg) {
-                case A: {
-                    return getA();
-                }
-                case F: {
-                    return getFlags().getByte();
-                }
-                case B: {
-                    return getB();
-                }
-                case C: {
-                    return getC();
-                }
-                case D: {
-                    return getD();
-                }
-                case E: {
-                    return getE();
-                }
-                case H: {
-                    return getH();
-                }
-                case L: {
-                    return getL();
-                }
-            }
-        } else {
-            switch (reg) {
-                case AF: {
-                    return getAF();
-                }
-                case BC: {
-                    return getBC();
-                }
-                case DE: {
-                    return getDE();
-                }
-                case HL: {
-                    return getHL();
-                }
-                case SP: {
-                    return getSP();
-                }
-                case PC: {
-                    return getPC();
-                }
-            }
-        }
-        throw new IllegalStateException(String.format("There is no such register as %s!", reg));
+        if (reg.containsFlags)
+            f.materialize();
+
+        if (reg.size == RegEnum.SINGLE)
+            return regs[reg.index] & 0xFF;
+        return getShort(reg.index);
     }
 
     public void set(RegEnum reg, int value) {
         if (reg.size == RegEnum.SINGLE) {
-            switch (reg) {
-                case A: {
-                    setA(value);
-                    break;
-                }
-                case F: {
-                    setFlags(value);
-                    break;
-                }
-                case B: {
-                    setB(value);
-                    break;
-                }
-                case C: {
-                    setC(value);
-                    break;
-                }
-                case D: {
-                    setD(value);
-                    break;
-                }
-                case E: {
-                    setE(value);
-                    break;
-                }
-                case H: {
-                    setH(value);
-                    break;
-                }
-                case L: {
-                    setL(value);
-                    break;
-                }
-            }
+            isByte(value);
+            regs[reg.index] = (byte) value;
         } else {
-            switch (reg) {
-                case AF: {
-                    setAF(value);
-                    break;
-                }
-                case BC: {
-                    setBC(value);
-                    break;
-                }
-                case DE: {
-                    setDE(value);
-                    break;
-                }
-                case HL: {
-                    setHL(value);
-                    break;
-                }
-                case SP: {
-                    setSP(value);
-                    break;
-                }
-                case PC: {
-                    setPC(value);
-                    break;
-                }
-            }
+            isShort(value);
+            setShort(reg.index, value);
         }
+
+        // Only the high nibble of F exists
+        if (reg.containsFlags)
+            f.setFlagsByte(regs[F] & 0xF0);
+    }
+
+    private int getShort(int index) {
+        return (short) SHORT.get(regs, index) & 0xFFFF;
+    }
+
+    private void setShort(int index, int value) {
+        SHORT.set(regs, index, (short) value);
+    }
+
+    // Copy of the whole register file, flags included
+    public byte[] snapshot() {
+        f.materialize();
+        return regs.clone();
+    }
+
+    public void restore(byte[] snapshot) {
+        System.arraycopy(snapshot, 0, regs, 0, SIZE);
+        f.setFlagsByte(regs[F] & 0xF0);
     }
 
     public int incPC() {
-        return pc++;
+        var pc = getShort(PC);
+        setShort(PC, pc + 1);
+        return pc;
     }
 
     public int decSP() {
-        return --sp;
+        var sp = (getShort(SP) - 1) & 0xFFFF;
+        setShort(SP, sp);
+        return sp;
     }
 
     public int incSP() {
-        return sp++;
+        var sp = getShort(SP);
+        setShort(SP, sp + 1);
+        return sp;
     }
 
     public int getA() {
-        return a & 0xFF;
+        return regs[A] & 0xFF;
     }
 
     public void setA(int a) {
         isByte(a);
-        this.a = a;
+        regs[A] = (byte) a;
     }
 
     public int getB() {
-        return b & 0xFF;
+        return regs[B] & 0xFF;
     }
 
     public void setB(int b) {
         isByte(b);
-        this.b = b;
+        regs[B] = (byte) b;
     }
 
     public int getC() {
-        return c & 0xFF;
+        return regs[C] & 0xFF;
     }
 
     public void setC(int c) {
         isByte(c);
-        this.c = c;
+        regs[C] = (byte) c;
     }
 
     public int getD() {
-        return d & 0xFF;
+        return regs[D] & 0xFF;
     }
 
     public void setD(int d) {
         isByte(d);
-        this.d = d;
+        regs[D] = (byte) d;
     }
 
     public int getE() {
-        return e & 0xFF;
+        return regs[E] & 0xFF;
     }
 
     public void setE(int e) {
         isByte(e);
-        this.e = e;
+        regs[E] = (byte) e;
     }
 
     public FlagsReg getFlags() {
@@ -207,78 +153,76 @@ public class Registers {
     }
 
     public int getH() {
-        return h & 0xFF;
+        return regs[H] & 0xFF;
     }
 
     public void setH(int h) {
         isByte(h);
-        this.h = h;
+        regs[H] = (byte) h;
     }
 
     public int getL() {
-        return l & 0xFF;
+        return regs[L] & 0xFF;
     }
 
     public void setL(int l) {
         isByte(l);
-        this.l = l;
+        regs[L] = (byte) l;
     }
 
     public int getSP() {
-        return sp & 0xFFFF;
+        return getShort(SP);
     }
 
     public void setSP(int sp) {
         isShort(sp);
-        this.sp = sp;
+        setShort(SP, sp);
     }
 
     public int getPC() {
-        return pc & 0xFFFF;
+        return getShort(PC);
     }
 
     public void setPC(int pc) {
         isShort(pc);
-        this.pc = pc;
+        setShort(PC, pc);
     }
 
     public int getAF() {
-        return a << 8 | f.getByte();
+        f.materialize();
+        return getShort(A);
     }
 
     public void setAF(int af) {
         isShort(af);
-        a = (af & 0xFF00) >>> 8;
-        f.setFlagsByte(af & 0xFF);
+        setShort(A, af);
+        f.setFlagsByte(af & 0xF0);
     }
 
     public int getBC() {
-        return b << 8 | c;
+        return getShort(B);
     }
 
     public void setBC(int bc) {
         isShort(bc);
-        b = (bc & 0xFF00) >>> 8;
-        c = bc & 0xFF;
+        setShort(B, bc);
     }
 
     public int getDE() {
-        return d << 8 | e;
+        return getShort(D);
     }
 
     public void setDE(int de) {
         isShort(de);
-        d = (de & 0xFF00) >>> 8;
-        e = de & 0xFF;
+        setShort(D, de);
     }
 
     public int getHL() {
-        return h << 8 | l;
+        return getShort(H);
     }
 
     public void setHL(int hl) {
         isShort(hl);
-        h = (hl & 0xFF00) >>> 8;
-        l = hl & 0xFF;
+        setShort(H, hl);
     }
 }
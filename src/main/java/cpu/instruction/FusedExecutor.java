@@ -0,0 +1,50 @@
+package cpu.instruction;
+
+import cpu.Context;
+import cpu.Registers;
+import cpu.interrupt.InterruptManager;
+import memory.AddressSpace;
+
+import java.util.function.ToIntFunction;
+
+/*
+ * Template for a fused instruction. InstructionFuser defines a separate hidden copy of this class
+ * for every opcode, so each call site below only ever sees the operations of a single instruction
+ * and the JIT can inline the whole chain. Unused slots are filled with a pass-through operation.
+ * */
+final class FusedExecutor implements InstructionExecutor {
+
+    static final int SLOTS = 6;
+
+    private final Operation op0;
+    private final Operation op1;
+    private final Operation op2;
+    private final Operation op3;
+    private final Operation op4;
+    private final Operation op5;
+    private final ToIntFunction<Context> cyclesFun;
+
+    FusedExecutor(Operation[] operations, ToIntFunction<Context> cyclesFun) {
+        this.op0 = operations[0];
+        this.op1 = operations[1];
+        this.op2 = operations[2];
+        this.op3 = operations[3];
+        this.op4 = operations[4];
+        this.op5 = operations[5];
+        this.cyclesFun = cyclesFun;
+    }
+
+    @Override
+    public int execute(Registers registers, AddressSpace addressSpace, Context context, InterruptManager interruptManager) {
+        context.reset();
+
+        int accumulator = op0.execute(registers, addressSpace, 0, context, interruptManager);
+        accumulator = op1.execute(registers, addressSpace, accumulator, context, interruptManager);
+        accumulator = op2.execute(registers, addressSpace, accumulator, context, interruptManager);
+        accumulator = op3.execute(registers, addressSpace, accumulator, context, interruptManager);
+        accumulator = op4.execute(registers, addressSpace, accumulator, context, interruptManager);
+        op5.execute(registers, addressSpace, accumulator, context, interruptManager);
+
+        return cyclesFun.applyAsInt(context);
+    }
+}
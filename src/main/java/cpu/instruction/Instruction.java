@@ -1,41 +1,59 @@
 package cpu.instruction;
 
 import cpu.Context;
+import cpu.Registers;
+import cpu.interrupt.InterruptManager;
+import memory.AddressSpace;
 
 import java.util.List;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 public class Instruction {
 
-    private List<Operation> operations;
-    private Function<Context, Integer> cyclesFun;
-    private Context context;
+    private final List<Operation> operations;
+    private final InstructionExecutor executor;
+    private final ToIntFunction<Context> cyclesFun;
+    private final int immediateBytes;
+    private final boolean endsBlock;
     private String label;
 
-    public Instruction(List<Operation> operations, Function<Context, Integer> cyclesFun, String label) {
-        this.operations = operations;
+    public Instruction(List<Operation> operations, ToIntFunction<Context> cyclesFun, String label, int immediateBytes, boolean endsBlock) {
+        this.operations = List.copyOf(operations);
+        this.executor = InstructionFuser.fuse(operations, cyclesFun);
         this.cyclesFun = cyclesFun;
         this.label = label;
+        this.immediateBytes = immediateBytes;
+        this.endsBlock = endsBlock;
     }
 
     public static InstructionBuilder builder() {
         return new InstructionBuilder();
     }
 
+    // Runs all operations of the instruction and returns the number of cycles it took
+    public int execute(Registers registers, AddressSpace addressSpace, Context context, InterruptManager interruptManager) {
+        return executor.execute(registers, addressSpace, context, interruptManager);
+    }
+
+    // The unfused operations, kept for the dispatch benchmark
     public List<Operation> getOperations() {
         return operations;
     }
 
-    public int getCycles(Context context) {
-        return cyclesFun.apply(context);
+    public InstructionExecutor getExecutor() {
+        return executor;
     }
 
-    public Context getContext() {
-        return context;
+    public int getImmediateBytes() {
+        return immediateBytes;
     }
 
-    public void setContext(Context context) {
-        this.context = context;
+    public boolean endsBlock() {
+        return endsBlock;
+    }
+
+    public int getCycles(Context context) {
+        return cyclesFun.applyAsInt(context);
     }
 
     public String getLabel() {
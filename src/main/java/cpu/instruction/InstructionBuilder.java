@@ -6,7 +6,7 @@ import memory.AddressSpace;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import static cpu.BitUtils.*;
 
@@ -16,12 +16,18 @@ public class InstructionBuilder {
 
     private String label;
 
+    // Number of immediate bytes following the opcode, needed to decode whole blocks ahead of execution
+    private int immediateBytes;
+
+    // Set for instructions after which the next PC is not known ahead of execution
+    private boolean endsBlock;
+
     public InstructionBuilder() {
         operations = new ArrayList<>();
     }
 
-    public Instruction build(Function<Context, Integer> cycleFun) {
-        return new Instruction(operations, cycleFun, label);
+    public Instruction build(ToIntFunction<Context> cycleFun) {
+        return new Instruction(operations, cycleFun, label, immediateBytes, endsBlock);
     }
 
     public String getLabel() {
@@ -43,6 +49,7 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder loadBytes(int bytes) {
+        immediateBytes += bytes;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             switch (bytes) {
                 case 1:
@@ -60,6 +67,8 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder store(RegEnum reg) {
+        if (reg == RegEnum.PC)
+            endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             registers.set(reg, accumulator & 0xFFFF);
             return accumulator;
@@ -177,6 +186,8 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder pop(RegEnum reg) {
+        if (reg == RegEnum.PC)
+            endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             var value = pop(registers, addressSpace);
             registers.set(reg, value);
@@ -200,21 +211,16 @@ public class InstructionBuilder {
                 case RegEnum.SINGLE:
                     newRegVal += carry;
 
-                    flags.setZFlag((newRegVal & 0xFF) == 0);
-                    flags.setNFlag(false);
-                    flags.setHFlag(((regVal & 0xF) + (accumulator & 0xF) + carry) > 0xF);
-                    flags.setCFlag(((regVal & 0xFF) + accumulator + carry) > 0xFF);
+                    flags.setAdd(regVal, accumulator, carry);
 
                     return newRegVal & 0xFF;
                 case RegEnum.DOUBLE:
-                    flags.setNFlag(false);
-
                     if (isSigned) {
+                        flags.setNFlag(false);
                         flags.setHFlag(((regVal & 0xF) + (accumulator & 0xF)) > 0xF);
                         flags.setCFlag(((regVal & 0xFF) + (accumulator & 0xFF)) > 0xFF);
                     } else {
-                        flags.setHFlag(((regVal & 0xFFF) + (accumulator & 0xFFF)) > 0xFFF);
-                        flags.setCFlag(((regVal & 0xFFFF) + accumulator) > 0xFFFF);
+                        flags.setAdd16(regVal, accumulator);
                     }
 
                     return newRegVal & 0xFFFF;
@@ -249,11 +255,7 @@ public class InstructionBuilder {
     private static int sub(int byte1, int byte2, int carry, Registers registers) {
         var result = byte1 - byte2 - carry;
 
-        var flags = registers.getFlags();
-        flags.setZFlag((result & 0xFF) == 0);
-        flags.setNFlag(true);
-        flags.setHFlag(((byte1 ^ byte2 ^ (result & 0xFF)) & 0x10) != 0);
-        flags.setCFlag(result < 0);
+        registers.getFlags().setSub(byte1, byte2, carry);
 
         return result & 0xFF;
 
@@ -263,11 +265,7 @@ public class InstructionBuilder {
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             var output = (registers.get(reg) & accumulator) & 0xFF;
 
-            var flags = registers.getFlags();
-            flags.setZFlag(output == 0);
-            flags.setNFlag(false);
-            flags.setHFlag(true);
-            flags.setCFlag(false);
+            registers.getFlags().set(output == 0, false, true, false);
 
             return output;
         });
@@ -278,11 +276,7 @@ public class InstructionBuilder {
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             var output = (registers.get(reg) | accumulator) & 0xFF;
 
-            var flags = registers.getFlags();
-            flags.setZFlag(output == 0);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(false);
+            registers.getFlags().set(output == 0, false, false, false);
 
             return output;
         });
@@ -293,11 +287,7 @@ public class InstructionBuilder {
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             var output = (registers.get(reg) ^ accumulator) & 0xFF;
 
-            var flags = registers.getFlags();
-            flags.setZFlag(output == 0);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(false);
+            registers.getFlags().set(output == 0, false, false, false);
 
             return output;
         });
@@ -310,10 +300,7 @@ public class InstructionBuilder {
                 case RegEnum.SINGLE:
                     var output = (accumulator + 1) & 0xFF;
 
-                    var flags = registers.getFlags();
-                    flags.setZFlag(output == 0);
-                    flags.setNFlag(false);
-                    flags.setHFlag(((accumulator & 0xF) + 1) > 0xF);
+                    registers.getFlags().setInc(accumulator);
 
                     return output;
                 case RegEnum.DOUBLE:
@@ -332,10 +319,7 @@ public class InstructionBuilder {
                 case RegEnum.SINGLE:
                     var output = (accumulator - 1) & 0xFF;
 
-                    var flags = registers.getFlags();
-                    flags.setZFlag(output == 0);
-                    flags.setNFlag(true);
-                    flags.setHFlag(((accumulator ^ 1 ^ (output & 0xFF)) & 0x10) != 0);
+                    registers.getFlags().setDec(accumulator);
 
                     return output;
                 case RegEnum.DOUBLE:
@@ -353,11 +337,7 @@ public class InstructionBuilder {
             var hi = (accumulator & 0xF) << 4;
             var output = ((accumulator & 0xF0) >> 4) | hi;
 
-            var flags = registers.getFlags();
-            flags.setZFlag(output == 0);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(false);
+            registers.getFlags().set(output == 0, false, false, false);
 
             return output;
         });
@@ -371,13 +351,7 @@ public class InstructionBuilder {
             var output = ((accumulator << 1) & 0xFF) | carry;
 
             var flags = registers.getFlags();
-            if (setZeroFlag)
-                flags.setZFlag(output == 0);
-            else
-                flags.setZFlag(false);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(carry == 1);
+            flags.set(setZeroFlag && output == 0, false, false, carry == 1);
 
             return output;
         });
@@ -392,13 +366,7 @@ public class InstructionBuilder {
             var carry = ((accumulator >>> 7) & 0x1);
             var output = ((accumulator << 1) & 0xFF) | (flags.isCFlag() ? 1 : 0);
 
-            if (setZeroFlag)
-                flags.setZFlag(output == 0);
-            else
-                flags.setZFlag(false);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(carry == 1);
+            flags.set(setZeroFlag && output == 0, false, false, carry == 1);
 
             return output;
         });
@@ -413,13 +381,7 @@ public class InstructionBuilder {
             var carry = accumulator & 0x1;
             var output = ((accumulator >> 1) & 0xFF) | (carry << 7);
 
-            if (setZeroFlag)
-                flags.setZFlag(output == 0);
-            else
-                flags.setZFlag(false);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(carry == 1);
+            flags.set(setZeroFlag && output == 0, false, false, carry == 1);
 
             return output;
         });
@@ -434,13 +396,7 @@ public class InstructionBuilder {
             var carry = accumulator & 0x1;
             var output = ((accumulator >> 1) & 0xFF) | ((flags.isCFlag() ? 1 : 0) << 7);
 
-            if (setZeroFlag)
-                flags.setZFlag(output == 0);
-            else
-                flags.setZFlag(false);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(carry == 1);
+            flags.set(setZeroFlag && output == 0, false, false, carry == 1);
 
             return output;
         });
@@ -455,10 +411,7 @@ public class InstructionBuilder {
             var carry = ((accumulator >>> 7) & 0x1);
             var output = (accumulator << 1) & 0xFE;
 
-            flags.setZFlag(output == 0);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(carry == 1);
+            flags.set(output == 0, false, false, carry == 1);
 
             return output;
         });
@@ -474,10 +427,7 @@ public class InstructionBuilder {
             var msb = (accumulator & 0x80) >> 7;
             var output = ((accumulator >> 1) & 0x7F) | (msb << 7);
 
-            flags.setZFlag(output == 0);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(carry == 1);
+            flags.set(output == 0, false, false, carry == 1);
 
             return output;
         });
@@ -492,10 +442,7 @@ public class InstructionBuilder {
             var carry = accumulator & 0x1;
             var output = (accumulator >> 1) & 0x7F;
 
-            flags.setZFlag(output == 0);
-            flags.setNFlag(false);
-            flags.setHFlag(false);
-            flags.setCFlag(carry == 1);
+            flags.set(output == 0, false, false, carry == 1);
 
             return output;
         });
@@ -509,9 +456,7 @@ public class InstructionBuilder {
                 throw new IllegalArgumentException(String.format("Bit %d out of range 0-7!", accumulator));
             }
 
-            flags.setZFlag(!getByteBit(accumulator, bit));
-            flags.setNFlag(false);
-            flags.setHFlag(true);
+            flags.set(!getByteBit(accumulator, bit), false, true, flags.isCFlag());
 
             return accumulator;
         });
@@ -563,6 +508,7 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder jp(JumpCondition conditionOpt, boolean jr) {
+        endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             boolean shouldJump = true;
 
@@ -584,6 +530,7 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder call(JumpCondition conditionOpt) {
+        endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             boolean shouldCall = true;
 
@@ -602,6 +549,7 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder ret(JumpCondition conditionOpt) {
+        endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             boolean shouldCall = true;
 
@@ -694,6 +642,7 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder halt() {
+        endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             interruptManager.setHalted(true);
 
@@ -703,6 +652,7 @@ public class InstructionBuilder {
     }
 
     public InstructionBuilder stop() {
+        endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             interruptManager.setStopped(true);
 
@@ -722,6 +672,7 @@ public class InstructionBuilder {
     }
 
     private void setShouldDisableInterrupts(boolean value) {
+        endsBlock = true;
         operations.add((registers, addressSpace, accumulator, context, interruptManager) -> {
             interruptManager.setShouldDisableInterrupts(value);
 
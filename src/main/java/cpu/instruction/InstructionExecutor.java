@@ -0,0 +1,10 @@
+package cpu.instruction;
+
+import cpu.Context;
+import cpu.Registers;
+import cpu.interrupt.InterruptManager;
+import memory.AddressSpace;
+
+public interface InstructionExecutor {
+    int execute(Registers registers, AddressSpace addressSpace, Context context, InterruptManager interruptManager);
+}
@@ -0,0 +1,51 @@
+package cpu.instruction;
+
+import cpu.Context;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+final class InstructionFuser {
+
+    private static final Operation PASS = (registers, addressSpace, accumulator, context, interruptManager) -> accumulator;
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, Operation[].class, ToIntFunction.class);
+
+    private static final byte[] TEMPLATE = readTemplate();
+
+    private InstructionFuser() {
+    }
+
+    static InstructionExecutor fuse(List<Operation> operations, ToIntFunction<Context> cyclesFun) {
+        if (operations.size() > FusedExecutor.SLOTS)
+            return new LoopExecutor(operations, cyclesFun);
+
+        var slots = new Operation[FusedExecutor.SLOTS];
+        Arrays.fill(slots, PASS);
+        for (int i = 0; i < operations.size(); i++)
+            slots[i] = operations.get(i);
+
+        try {
+            // Every instruction gets its own copy of the template class, and with it its own type profile
+            var lookup = MethodHandles.lookup().defineHiddenClass(TEMPLATE, true);
+            var constructor = lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE);
+            return (InstructionExecutor) constructor.invoke(slots, cyclesFun);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not fuse instruction operations!", e);
+        }
+    }
+
+    private static byte[] readTemplate() {
+        try (var stream = InstructionFuser.class.getResourceAsStream("FusedExecutor.class")) {
+            if (stream == null)
+                throw new IllegalStateException("FusedExecutor template class not found!");
+            return stream.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read FusedExecutor template class!", e);
+        }
+    }
+}
@@ -1,37 +1,52 @@
 package cpu.instruction;
 
-import cpu.Context;
 import cpu.instruction.appender.*;
 
-import java.util.*;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.stream.Stream;
 
 public class Instructions {
 
-    public static final Map<Integer, Instruction> instructions;
-    public static final Map<Integer, Instruction> prefixed;
+    private static final int TABLE_SIZE = 0x100;
+
+    // Dense opcode tables, filled once in the static block and never modified afterwards
+    private static final Instruction[] instructions;
+    private static final Instruction[] prefixed;
 
     public static Instruction get(int opcode) {
-        var instr = instructions.get(opcode);
-        instr.setContext(new Context());
+        var instr = instructions[opcode];
+        if (instr == null)
+            throw new IllegalStateException(String.format("Opcode %02X not implemented!", opcode));
         return instr;
     }
 
     public static Instruction getPrefixed(int opcode) {
-        var instr = prefixed.get(opcode);
-        instr.setContext(new Context());
+        var instr = prefixed[opcode];
+        if (instr == null)
+            throw new IllegalStateException(String.format("Prefixed opcode %02X not implemented!", opcode));
         return instr;
     }
 
-    private static void put(int opcode, Instruction instruction) {
-        if (instructions.containsKey(opcode))
-            throw new IllegalStateException(String.format("Opcode %02X already exists!", opcode));
-        instructions.put(opcode, instruction);
+    public static boolean isImplemented(int opcode) {
+        return instructions[opcode] != null;
+    }
+
+    private static Instruction[] toTable(Map<Integer, Instruction> map) {
+        var table = new Instruction[TABLE_SIZE];
+        map.forEach((opcode, instruction) -> {
+            if (opcode < 0 || opcode >= TABLE_SIZE)
+                throw new IllegalStateException(String.format("Opcode %02X out of range!", opcode));
+            if (table[opcode] != null)
+                throw new IllegalStateException(String.format("Opcode %02X already exists!", opcode));
+            table[opcode] = instruction;
+        });
+        return table;
     }
 
     static {
-        instructions = new HashMap<>();
-        prefixed = new HashMap<>();
+        Map<Integer, Instruction> instructionsMap = new HashMap<>();
+        Map<Integer, Instruction> prefixedMap = new HashMap<>();
 
         Stream.of(
                 new ByteLoadInstructions(),
@@ -43,10 +58,12 @@ public class Instructions {
                 new BitInstructions(),
                 new JumpInstructions()
         ).forEach(instructionsAppender -> {
-            instructionsAppender.add(instructions);
-            instructionsAppender.addPrefixed(prefixed);
+            instructionsAppender.add(instructionsMap);
+            instructionsAppender.addPrefixed(prefixedMap);
         });
 
+        instructions = toTable(instructionsMap);
+        prefixed = toTable(prefixedMap);
     }
 
     private Instructions() {
@@ -0,0 +1,32 @@
+package cpu.instruction;
+
+import cpu.Context;
+import cpu.Registers;
+import cpu.interrupt.InterruptManager;
+import memory.AddressSpace;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Fallback for operation chains that do not fit in FusedExecutor
+final class LoopExecutor implements InstructionExecutor {
+
+    private final Operation[] operations;
+    private final ToIntFunction<Context> cyclesFun;
+
+    LoopExecutor(List<Operation> operations, ToIntFunction<Context> cyclesFun) {
+        this.operations = operations.toArray(new Operation[0]);
+        this.cyclesFun = cyclesFun;
+    }
+
+    @Override
+    public int execute(Registers registers, AddressSpace addressSpace, Context context, InterruptManager interruptManager) {
+        context.reset();
+
+        int accumulator = 0;
+        for (int i = 0; i < operations.length; i++) {
+            accumulator = operations[i].execute(registers, addressSpace, accumulator, context, interruptManager);
+        }
+        return cyclesFun.applyAsInt(context);
+    }
+}
@@ -2,13 +2,12 @@ package cpu.instruction;
 
 import cpu.Context;
 
-import java.util.Optional;
-import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 public class Opcode<K> {
     private int opcode;
     private K target;
-    private Function<Context, Integer> cyclesFun;
+    private ToIntFunction<Context> cyclesFun;
 
     public Opcode(int opcode, K target, int cycles) {
         this.opcode = opcode;
@@ -16,7 +15,7 @@ public class Opcode<K> {
         this.cyclesFun = context -> cycles;
     }
 
-    public Opcode(int opcode, K target, Function<Context,Integer> cyclesFun) {
+    public Opcode(int opcode, K target, ToIntFunction<Context> cyclesFun) {
         this.opcode = opcode;
         this.target = target;
         this.cyclesFun = cyclesFun;
@@ -36,7 +35,7 @@ public class Opcode<K> {
         return target;
     }
 
-    public Function<Context, Integer> getCyclesFun() {
+    public ToIntFunction<Context> getCyclesFun() {
         return cyclesFun;
     }
 }
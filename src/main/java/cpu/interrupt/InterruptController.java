@@ -0,0 +1,54 @@
+package cpu.interrupt;
+
+/*
+ * Owns IE and IF. Devices raise interrupts with request() instead of a read-modify-write of IF through memory,
+ * the registers are only reached through memory by the running program.
+ * IE & IF is kept up to date on every change, so the check before each instruction is a single read of pending.
+ * The AWT key thread requests the joypad interrupt, changes are synchronized and pending is volatile.
+ * */
+public class InterruptController {
+
+    private static final int INTERRUPTS_MASK = 0x1F;
+
+    private int enable;
+    private int flag;
+    private volatile int pending;
+
+    public synchronized void request(InterruptEnum interrupt) {
+        flag |= interrupt.get();
+        updatePending();
+    }
+
+    // Clears the flag of an interrupt that's being serviced
+    public synchronized void acknowledge(InterruptEnum interrupt) {
+        flag &= ~interrupt.get();
+        updatePending();
+    }
+
+    // Interrupts both enabled and requested
+    public int getPending() {
+        return pending;
+    }
+
+    public synchronized int getIE() {
+        return enable;
+    }
+
+    public synchronized void setIE(int value) {
+        enable = value;
+        updatePending();
+    }
+
+    public synchronized int getIF() {
+        return flag;
+    }
+
+    public synchronized void setIF(int value) {
+        flag = value;
+        updatePending();
+    }
+
+    private void updatePending() {
+        pending = enable & flag & INTERRUPTS_MASK;
+    }
+}
@@ -2,19 +2,25 @@ package cpu.interrupt;
 
 public enum InterruptEnum {
 
-    VBLANK(0x01),
-    LCD_STAT(0x02),
-    TIMER(0x04),
-    SERIAL(0x08),
-    JOYPAD(0x10);
+    VBLANK(0x01, 0x0040),
+    LCD_STAT(0x02, 0x0048),
+    TIMER(0x04, 0x0050),
+    SERIAL(0x08, 0x0058),
+    JOYPAD(0x10, 0x0060);
 
     private int number;
+    private int vector;
 
-    InterruptEnum(int number) {
+    InterruptEnum(int number, int vector) {
         this.number = number;
+        this.vector = vector;
     }
 
     public int get() {
         return number;
     }
+
+    public int getVector() {
+        return vector;
+    }
 }
@@ -10,11 +10,16 @@ public class InterruptManager {
     private final CPU cpu;
     private final Registers registers;
     private final AddressSpace addressSpace;
+    private final InterruptController interruptController;
 
-    public InterruptManager(CPU cpu, Registers registers, AddressSpace addressSpace) {
+    // In priority order
+    private static final InterruptEnum[] INTERRUPTS = InterruptEnum.values();
+
+    public InterruptManager(CPU cpu, Registers registers, AddressSpace addressSpace, InterruptController interruptController) {
         this.cpu = cpu;
         this.registers = registers;
         this.addressSpace = addressSpace;
+        this.interruptController = interruptController;
     }
 
     boolean isHalted = false;
@@ -24,28 +29,16 @@ public class InterruptManager {
     boolean shouldDisableInterrupts = false;
 
     public void handleInterrupts() {
-        var intEnable = addressSpace.get(InterruptRegs.IE.getAddress());
-        var intFlag = addressSpace.get(InterruptRegs.IF.getAddress());
-        if (intEnable > 0 && intFlag > 0) {
-            var enabled = intEnable & intFlag;
-
-            if ((enabled & InterruptEnum.VBLANK.get()) > 0) {
-                addressSpace.set(InterruptRegs.IF.getAddress(), intFlag & 0xFE);
-                callInt(0x0040);
-            } else if ((enabled & InterruptEnum.LCD_STAT.get()) > 0) {
-                addressSpace.set(InterruptRegs.IF.getAddress(), intFlag & 0xFD);
-                callInt(0x0048);
-            } else if ((enabled & InterruptEnum.TIMER.get()) > 0) {
-                addressSpace.set(InterruptRegs.IF.getAddress(), intFlag & 0xFB);
-                callInt(0x0050);
-            } else if ((enabled & InterruptEnum.SERIAL.get()) > 0) {
-                addressSpace.set(InterruptRegs.IF.getAddress(), intFlag & 0xF7);
-                callInt(0x0058);
-            } else if ((enabled & InterruptEnum.JOYPAD.get()) > 0) {
-                addressSpace.set(InterruptRegs.IF.getAddress(), intFlag & 0xEF);
-                callInt(0x0060);
+        var pending = interruptController.getPending();
+        if (pending == 0)
+            return;
+
+        for (var interrupt : INTERRUPTS) {
+            if ((pending & interrupt.get()) > 0) {
+                interruptController.acknowledge(interrupt);
+                callInt(interrupt.getVector());
+                return;
             }
-
         }
     }
 
@@ -69,6 +62,11 @@ public class InterruptManager {
         return interruptsEnabled;
     }
 
+    // An interrupt is requested, enabled and IME is set, it's serviced before the next instruction
+    public boolean isInterruptDue() {
+        return interruptsEnabled && interruptController.getPending() != 0;
+    }
+
     public void disableInterrupts() {
         this.interruptsEnabled = false;
     }
@@ -103,10 +101,7 @@ public class InterruptManager {
     }
 
     public void updateHaltedState() {
-        var intEnable = addressSpace.get(InterruptRegs.IE.getAddress());
-        var intFlag = addressSpace.get(InterruptRegs.IF.getAddress());
-        var enabled = intEnable & intFlag;
-        if (enabled > 0 && isHalted)
+        if (isHalted && interruptController.getPending() > 0)
             setHalted(false);
     }
 }
@@ -0,0 +1,105 @@
+package cpu.jit;
+
+import cpu.Context;
+import cpu.Registers;
+import cpu.instruction.Instruction;
+import cpu.interrupt.InterruptManager;
+import memory.AddressSpace;
+
+public class Block {
+
+    private final int bank;
+    private final int startAddress;
+    // Exclusive, includes immediate bytes of the last instruction
+    private final int endAddress;
+    private final Instruction[] instructions;
+    // PC right after the opcode (and 0xCB prefix) of each instruction, that's where its immediate data starts
+    private final int[] operandAddresses;
+
+    // Written by the compiler thread once the block is hot, until then the block is interpreted
+    private volatile CompiledBlock compiled;
+
+    private int executionCount;
+    private boolean compilable = true;
+    private long queuedAt;
+
+    public Block(int bank, int startAddress, int endAddress, Instruction[] instructions, int[] operandAddresses) {
+        this.bank = bank;
+        this.startAddress = startAddress;
+        this.endAddress = endAddress;
+        this.instructions = instructions;
+        this.operandAddresses = operandAddresses;
+    }
+
+    // Moves the clock forward by every instruction that ran and returns the number of cycles they took
+    public int execute(Registers registers, AddressSpace addressSpace, Context context, InterruptManager interruptManager, BlockClock clock) {
+        clock.start();
+        var compiled = this.compiled;
+        if (compiled != null)
+            compiled.execute(registers, addressSpace, context, interruptManager, clock);
+        else
+            interpret(registers, addressSpace, context, interruptManager, clock);
+        return clock.getCycles();
+    }
+
+    // Same steps as the compiled code, only without the per-block class
+    private void interpret(Registers registers, AddressSpace addressSpace, Context context, InterruptManager interruptManager, BlockClock clock) {
+        for (int i = 0; i < instructions.length; i++) {
+            registers.setPC(operandAddresses[i]);
+            if (clock.tick(instructions[i].execute(registers, addressSpace, context, interruptManager)))
+                return;
+        }
+    }
+
+    public int incrementExecutionCount() {
+        return ++executionCount;
+    }
+
+    public int getExecutionCount() {
+        return executionCount;
+    }
+
+    public boolean isCompilable() {
+        return compilable;
+    }
+
+    public void disableCompilation() {
+        this.compilable = false;
+    }
+
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
+    public void setQueuedAt(long queuedAt) {
+        this.queuedAt = queuedAt;
+    }
+
+    public int getBank() {
+        return bank;
+    }
+
+    public int getStartAddress() {
+        return startAddress;
+    }
+
+    public int getEndAddress() {
+        return endAddress;
+    }
+
+    public Instruction[] getInstructions() {
+        return instructions;
+    }
+
+    public int[] getOperandAddresses() {
+        return operandAddresses;
+    }
+
+    public CompiledBlock getCompiled() {
+        return compiled;
+    }
+
+    public void setCompiled(CompiledBlock compiled) {
+        this.compiled = compiled;
+    }
+}
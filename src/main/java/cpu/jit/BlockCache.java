@@ -0,0 +1,121 @@
+package cpu.jit;
+
+import memory.MMU;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BlockCache {
+
+    // Bank of blocks decoded from the boot ROM while it's still mapped over the cartridge
+    public static final int BOOT_BANK = -1;
+
+    private static final int BOOT_SIZE = 0x0100;
+    private static final int BANK_SIZE = 0x4000;
+    private static final int RAM_START = 0x8000;
+    private static final int RAM_SIZE = 0x8000;
+
+    // A block never leaves its page, only the immediate data of its last instruction can
+    private static final int MAX_BLOCK_BYTES = 0x0100 + 2;
+
+    private final MMU mmu;
+
+    private final Block[] bootBlocks = new Block[BOOT_SIZE];
+    // Indexed by bank, bank 0 is the fixed 0x0000-0x3FFF area; allocated on first use
+    private final Block[][] romBlocks;
+    private final Block[] ramBlocks = new Block[RAM_SIZE];
+    // Bit set for every RAM byte covered by a block, writes to other bytes don't need to look for blocks
+    private final long[] ramCode = new long[RAM_SIZE / 64];
+
+    public BlockCache(MMU mmu) {
+        this.mmu = mmu;
+        this.romBlocks = new Block[mmu.getRomBankCount()][];
+    }
+
+    // Echo RAM, OAM, unusable memory, I/O registers and IE are never compiled
+    public static boolean isCacheable(int address) {
+        return address < 0xE000 || (address >= 0xFF80 && address < 0xFFFF);
+    }
+
+    public boolean isBootRom(int address) {
+        return address < BOOT_SIZE && !mmu.isAfterBios();
+    }
+
+    public int bankOf(int address) {
+        if (isBootRom(address))
+            return BOOT_BANK;
+        if (address >= BANK_SIZE && address < BANK_SIZE * 2)
+            return mmu.getRomBank();
+        return 0;
+    }
+
+    public Block get(int address) {
+        if (isBootRom(address))
+            return bootBlocks[address];
+        if (address < BANK_SIZE * 2) {
+            var bank = romBlocks[bankOf(address)];
+            return bank == null ? null : bank[address & (BANK_SIZE - 1)];
+        }
+        return ramBlocks[address - RAM_START];
+    }
+
+    public void put(Block block) {
+        var address = block.getStartAddress();
+        if (block.getBank() == BOOT_BANK) {
+            bootBlocks[address] = block;
+        } else if (address < BANK_SIZE * 2) {
+            // Bank of the block, not the mapped one, blocks loaded from disk can belong to any bank
+            var bankIndex = block.getBank();
+            if (romBlocks[bankIndex] == null)
+                romBlocks[bankIndex] = new Block[BANK_SIZE];
+            romBlocks[bankIndex][address & (BANK_SIZE - 1)] = block;
+        } else {
+            ramBlocks[address - RAM_START] = block;
+            mmu.protectCodePages(address, block.getEndAddress() - 1);
+            for (int i = address; i < block.getEndAddress() && i < RAM_START + RAM_SIZE; i++) {
+                var offset = i - RAM_START;
+                ramCode[offset >> 6] |= 1L << offset;
+            }
+        }
+    }
+
+    // Called by the MMU for every write to RAM, drops all blocks the written byte belongs to
+    public void invalidateWrite(int address) {
+        var offset = address - RAM_START;
+        if ((ramCode[offset >> 6] & (1L << offset)) == 0)
+            return;
+
+        dropRamBlocks(address, address);
+    }
+
+    // Inclusive range, used when a whole region changes, e.g. on external RAM bank switch
+    public void invalidateRange(int from, int to) {
+        if (to < RAM_START)
+            return;
+        dropRamBlocks(Math.max(from, RAM_START), to);
+    }
+
+    // Also called from the compiler thread, a block put in the meantime may be missed and is saved next time
+    public List<Block> getCompiledRomBlocks() {
+        var blocks = new ArrayList<Block>();
+        for (var bank : romBlocks) {
+            if (bank == null)
+                continue;
+            for (var block : bank) {
+                if (block != null && block.getCompiled() != null)
+                    blocks.add(block);
+            }
+        }
+        return blocks;
+    }
+
+    private void dropRamBlocks(int from, int to) {
+        // Bits of dropped blocks stay set, they might be shared with overlapping blocks that are still valid
+        for (int start = Math.max(RAM_START, from - MAX_BLOCK_BYTES); start <= to; start++) {
+            var block = ramBlocks[start - RAM_START];
+            if (block != null && block.getEndAddress() > from)
+                ramBlocks[start - RAM_START] = null;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package cpu.jit;
+
+import cpu.Context;
+import cpu.Registers;
+import cpu.instruction.InstructionExecutor;
+import cpu.interrupt.InterruptManager;
+import memory.AddressSpace;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Writes class files for compiled blocks. It only knows the one shape BlockCompiler needs:
+ * a final class implementing CompiledBlock with one field per instruction executor, a constructor taking
+ * an executor array and an execute method that runs the executors in order. The only branches jump to the
+ * return at the end with nothing on the stack and the locals unchanged, so the StackMapTable is a single same_frame.
+ * */
+class BlockClassWriter {
+
+    private static final int CLASS_VERSION = 61;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC_W = 0x13;
+    private static final int ALOAD = 0x19;
+    private static final int ALOAD_0 = 0x2A;
+    private static final int ALOAD_1 = 0x2B;
+    private static final int ALOAD_2 = 0x2C;
+    private static final int ALOAD_3 = 0x2D;
+    private static final int AALOAD = 0x32;
+    private static final int IFNE = 0x9A;
+    private static final int RETURN = 0xB1;
+    private static final int GETFIELD = 0xB4;
+    private static final int PUTFIELD = 0xB5;
+    private static final int INVOKEVIRTUAL = 0xB6;
+    private static final int INVOKESPECIAL = 0xB7;
+    private static final int INVOKEINTERFACE = 0xB9;
+
+    private static final int SAME_FRAME_EXTENDED = 251;
+
+    // Names and descriptors come from the classes, so they can't go out of sync with a rename or a signature change
+    private static final String OBJECT = internalName(Object.class);
+    private static final String COMPILED_BLOCK = internalName(CompiledBlock.class);
+    private static final String REGISTERS = internalName(Registers.class);
+    private static final String BLOCK_CLOCK = internalName(BlockClock.class);
+    private static final String EXECUTOR = internalName(InstructionExecutor.class);
+    private static final String EXECUTOR_DESC = InstructionExecutor.class.descriptorString();
+    private static final String CONSTRUCTOR_DESC = MethodType.methodType(void.class, InstructionExecutor[].class).toMethodDescriptorString();
+    private static final String EXECUTE_DESC = MethodType.methodType(int.class,
+            Registers.class, AddressSpace.class, Context.class, InterruptManager.class).toMethodDescriptorString();
+    private static final String BLOCK_EXECUTE_DESC = MethodType.methodType(void.class,
+            Registers.class, AddressSpace.class, Context.class, InterruptManager.class, BlockClock.class).toMethodDescriptorString();
+    private static final String SET_PC_DESC = MethodType.methodType(void.class, int.class).toMethodDescriptorString();
+    private static final String TICK_DESC = MethodType.methodType(boolean.class, int.class).toMethodDescriptorString();
+    private static final String OBJECT_CONSTRUCTOR_DESC = MethodType.methodType(void.class).toMethodDescriptorString();
+
+    // Locals of the execute method
+    private static final int INTERRUPT_MANAGER_LOCAL = 4;
+    private static final int CLOCK_LOCAL = 5;
+
+    private final ConstantPool constants = new ConstantPool();
+
+    private final String className;
+
+    BlockClassWriter(String className) {
+        this.className = className;
+    }
+
+    // One executor per instruction, setPC is called with operandAddresses[i] right before executor i
+    // and the clock is ticked right after it
+    byte[] write(int[] operandAddresses) {
+        var executorCount = operandAddresses.length;
+
+        var thisClass = constants.classRef(className);
+        var superClass = constants.classRef(OBJECT);
+        var compiledBlock = constants.classRef(COMPILED_BLOCK);
+
+        var fields = new int[executorCount];
+        for (int i = 0; i < executorCount; i++)
+            fields[i] = constants.fieldRef(className, fieldName(i), EXECUTOR_DESC);
+
+        var constructor = writeConstructor(fields);
+        var execute = writeExecute(fields, operandAddresses);
+
+        // Everything written below refers to the constant pool, so it has to be complete before it's written
+        var fieldNames = new int[executorCount];
+        for (int i = 0; i < executorCount; i++)
+            fieldNames[i] = constants.utf8(fieldName(i));
+        var executorDesc = constants.utf8(EXECUTOR_DESC);
+        var constructorName = constants.utf8("<init>");
+        var constructorDesc = constants.utf8(CONSTRUCTOR_DESC);
+        var executeName = constants.utf8("execute");
+        var executeDesc = constants.utf8(BLOCK_EXECUTE_DESC);
+        var codeName = constants.utf8("Code");
+        var stackMapTableName = constants.utf8("StackMapTable");
+
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            constants.writeTo(out);
+
+            out.writeShort(ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(compiledBlock);
+
+            out.writeShort(executorCount);
+            for (int i = 0; i < executorCount; i++) {
+                out.writeShort(ACC_PRIVATE | ACC_FINAL);
+                out.writeShort(fieldNames[i]);
+                out.writeShort(executorDesc);
+                out.writeShort(0);
+            }
+
+            out.writeShort(2);
+            writeMethod(out, 0, constructorName, constructorDesc, codeName, constructor, 3, 2, null);
+            writeMethod(out, ACC_PUBLIC, executeName, executeDesc, codeName, execute.code, 6, 6,
+                    stackMap(stackMapTableName, execute.exit));
+
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] writeConstructor(int[] fields) {
+        var code = new Code();
+        code.op(ALOAD_0);
+        code.op(INVOKESPECIAL).u2(constants.methodRef(OBJECT, "<init>", OBJECT_CONSTRUCTOR_DESC));
+
+        for (int i = 0; i < fields.length; i++) {
+            code.op(ALOAD_0);
+            code.op(ALOAD_1);
+            pushInt(code, i);
+            code.op(AALOAD);
+            code.op(PUTFIELD).u2(fields[i]);
+        }
+
+        code.op(RETURN);
+        return code.toByteArray();
+    }
+
+    private Execute writeExecute(int[] fields, int[] operandAddresses) {
+        var setPC = constants.methodRef(REGISTERS, "setPC", SET_PC_DESC);
+        var execute = constants.interfaceMethodRef(EXECUTOR, "execute", EXECUTE_DESC);
+        var tick = constants.methodRef(BLOCK_CLOCK, "tick", TICK_DESC);
+
+        var code = new Code();
+        var branches = new ArrayList<Integer>();
+
+        for (int i = 0; i < fields.length; i++) {
+            // Skip fetch and decode, PC only has to point at the immediate data
+            code.op(ALOAD_1);
+            pushInt(code, operandAddresses[i]);
+            code.op(INVOKEVIRTUAL).u2(setPC);
+
+            // if (clock.tick(executor.execute(registers, addressSpace, context, interruptManager))) return
+            code.op(ALOAD).u1(CLOCK_LOCAL);
+            code.op(ALOAD_0);
+            code.op(GETFIELD).u2(fields[i]);
+            code.op(ALOAD_1);
+            code.op(ALOAD_2);
+            code.op(ALOAD_3);
+            code.op(ALOAD).u1(INTERRUPT_MANAGER_LOCAL);
+            code.op(INVOKEINTERFACE).u2(execute).u1(5).u1(0);
+            code.op(INVOKEVIRTUAL).u2(tick);
+            branches.add(code.size());
+            code.op(IFNE).u2(0);
+        }
+
+        var exit = code.size();
+        code.op(RETURN);
+        return new Execute(code.toByteArray(branches, exit), exit);
+    }
+
+    // The only frame, at the return every branch jumps to
+    private byte[] stackMap(int name, int exit) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeShort(name);
+            out.writeInt(2 + 1 + 2);
+            out.writeShort(1);
+            out.writeByte(SAME_FRAME_EXTENDED);
+            out.writeShort(exit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void pushInt(Code code, int value) {
+        if (value >= 0 && value <= 5) {
+            code.op(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            code.op(BIPUSH).u1(value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            code.op(SIPUSH).u2(value);
+        } else {
+            code.op(LDC_W).u2(constants.integer(value));
+        }
+    }
+
+    // stackMap is the whole StackMapTable attribute, or null if the code has no branches
+    private void writeMethod(DataOutputStream out, int access, int name, int descriptor, int codeName, byte[] code, int maxStack, int maxLocals, byte[] stackMap) throws IOException {
+        var attributes = stackMap == null ? new byte[0] : stackMap;
+
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+
+        out.writeShort(codeName);
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2 + attributes.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);
+        out.writeShort(stackMap == null ? 0 : 1);
+        out.write(attributes);
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String fieldName(int index) {
+        return "executor" + index;
+    }
+
+    private static class Execute {
+        private final byte[] code;
+        // Offset of the return
+        private final int exit;
+
+        Execute(byte[] code, int exit) {
+            this.code = code;
+            this.exit = exit;
+        }
+    }
+
+    private static class Code {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Code op(int opcode) {
+            bytes.write(opcode);
+            return this;
+        }
+
+        Code u1(int value) {
+            bytes.write(value);
+            return this;
+        }
+
+        Code u2(int value) {
+            bytes.write(value >>> 8);
+            bytes.write(value);
+            return this;
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+
+        // Points the branch instructions at the given offsets to the target, branch offsets are relative to the opcode
+        byte[] toByteArray(List<Integer> branches, int target) {
+            var code = bytes.toByteArray();
+            for (int branch : branches) {
+                var offset = target - branch;
+                code[branch + 1] = (byte) (offset >>> 8);
+                code[branch + 2] = (byte) offset;
+            }
+            return code;
+        }
+    }
+
+    private static class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int CLASS = 7;
+        private static final int FIELD_REF = 9;
+        private static final int METHOD_REF = 10;
+        private static final int INTERFACE_METHOD_REF = 11;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            var key = "utf8:" + value;
+            var index = indexes.get(key);
+            if (index != null)
+                return index;
+
+            try {
+                out.writeByte(UTF8);
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return add(key);
+        }
+
+        int integer(int value) {
+            var key = "int:" + value;
+            var index = indexes.get(key);
+            if (index != null)
+                return index;
+
+            write(INTEGER, value >>> 16, value & 0xFFFF);
+            return add(key);
+        }
+
+        int classRef(String internalName) {
+            var key = "class:" + internalName;
+            var index = indexes.get(key);
+            if (index != null)
+                return index;
+
+            var name = utf8(internalName);
+            write(CLASS, name);
+            return add(key);
+        }
+
+        int fieldRef(String owner, String name, String descriptor) {
+            return memberRef(FIELD_REF, owner, name, descriptor);
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            return memberRef(METHOD_REF, owner, name, descriptor);
+        }
+
+        int interfaceMethodRef(String owner, String name, String descriptor) {
+            return memberRef(INTERFACE_METHOD_REF, owner, name, descriptor);
+        }
+
+        private int memberRef(int tag, String owner, String name, String descriptor) {
+            var key = tag + ":" + owner + "." + name + descriptor;
+            var index = indexes.get(key);
+            if (index != null)
+                return index;
+
+            var ownerIndex = classRef(owner);
+            var nameAndType = nameAndType(name, descriptor);
+            write(tag, ownerIndex, nameAndType);
+            return add(key);
+        }
+
+        private int nameAndType(String name, String descriptor) {
+            var key = "nat:" + name + descriptor;
+            var index = indexes.get(key);
+            if (index != null)
+                return index;
+
+            var nameIndex = utf8(name);
+            var descriptorIndex = utf8(descriptor);
+            write(NAME_AND_TYPE, nameIndex, descriptorIndex);
+            return add(key);
+        }
+
+        private void write(int tag, int... shorts) {
+            try {
+                out.writeByte(tag);
+                for (var value : shorts)
+                    out.writeShort(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private int add(String key) {
+            indexes.put(key, count);
+            return count++;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            target.writeShort(count);
+            target.write(bytes.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package cpu.jit;
+
+import cpu.interrupt.InterruptManager;
+import cpu.scheduler.Scheduler;
+
+import java.util.function.IntSupplier;
+
+/*
+ * Moves the clock forward after every instruction of a block, the same way the main loop does after every
+ * interpreted instruction, so memory accesses and events inside a block happen at the time they would there.
+ * After each instruction it also tells the block whether it has to stop: an interrupt that has to be serviced
+ * became due, or a store mapped another ROM bank under the code that follows. PC already points at the next
+ * instruction then, so the main loop carries on from there.
+ * */
+public class BlockClock {
+
+    private final Scheduler scheduler;
+    private final InterruptManager interruptManager;
+    private final IntSupplier romBank;
+
+    private int bank;
+    private int cycles;
+
+    public BlockClock(Scheduler scheduler, InterruptManager interruptManager, IntSupplier romBank) {
+        this.scheduler = scheduler;
+        this.interruptManager = interruptManager;
+        this.romBank = romBank;
+    }
+
+    void start() {
+        bank = romBank.getAsInt();
+        cycles = 0;
+    }
+
+    // Called by blocks after each instruction, returns true if the block has to stop before the next one
+    public boolean tick(int instructionCycles) {
+        cycles += instructionCycles;
+        scheduler.advance(instructionCycles);
+        return interruptManager.isInterruptDue() || romBank.getAsInt() != bank;
+    }
+
+    // Cycles taken since the block started
+    int getCycles() {
+        return cycles;
+    }
+}
@@ -0,0 +1,42 @@
+package cpu.jit;
+
+import cpu.instruction.InstructionExecutor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+public class BlockCompiler {
+
+    // Bump whenever the generated classes change shape or blocks are cut differently,
+    // blocks cached on disk with another version are ignored
+    public static final int VERSION = 3;
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, InstructionExecutor[].class);
+
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    public CompiledBlock compile(Block block) {
+        return define(generate(block), block);
+    }
+
+    private byte[] generate(Block block) {
+        var className = String.format("cpu/jit/Block_%02X_%04X", block.getBank(), block.getStartAddress());
+        return new BlockClassWriter(className).write(block.getOperandAddresses());
+    }
+
+    private CompiledBlock define(byte[] classBytes, Block block) {
+        var instructions = block.getInstructions();
+        var executors = new InstructionExecutor[instructions.length];
+        for (int i = 0; i < instructions.length; i++)
+            executors[i] = instructions[i].getExecutor();
+
+        try {
+            // Not strongly linked to the class loader, so invalidated blocks can be unloaded
+            var blockLookup = lookup.defineHiddenClass(classBytes, true);
+            var constructor = blockLookup.findConstructor(blockLookup.lookupClass(), CONSTRUCTOR_TYPE);
+            return (CompiledBlock) constructor.invoke(executors);
+        } catch (Throwable e) {
+            throw new IllegalStateException(String.format("Could not compile block at %02X:%04X!", block.getBank(), block.getStartAddress()), e);
+        }
+    }
+}
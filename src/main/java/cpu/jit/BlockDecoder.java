@@ -0,0 +1,64 @@
+package cpu.jit;
+
+import cpu.instruction.Instruction;
+import cpu.instruction.Instructions;
+import memory.AddressSpace;
+
+import java.util.ArrayList;
+
+public class BlockDecoder {
+
+    // Keeps generated methods small
+    public static final int MAX_INSTRUCTIONS = 32;
+
+    private final AddressSpace addressSpace;
+
+    public BlockDecoder(AddressSpace addressSpace) {
+        this.addressSpace = addressSpace;
+    }
+
+    /*
+     * Decodes instructions from the address until one that changes the flow of execution.
+     * Blocks never leave the 256B page they start in, so they can't run from the boot ROM into the cartridge
+     * or from one memory region into another.
+     * Register accesses and stores that switch ROM banks don't end a block, the block clock keeps the first
+     * in time and stops the block after the second.
+     * Returns null if not even the first instruction can be decoded.
+     * */
+    public Block decode(int startAddress, int bank) {
+        var instructions = new ArrayList<Instruction>();
+        var operandAddresses = new ArrayList<Integer>();
+
+        var address = startAddress;
+        while (instructions.size() < MAX_INSTRUCTIONS && (address >> 8) == (startAddress >> 8)) {
+            int opcode = addressSpace.get(address);
+            Instruction instr;
+
+            if (opcode == 0xCB) {
+                instr = Instructions.getPrefixed(addressSpace.get(address + 1));
+                address += 2;
+            } else if (Instructions.isImplemented(opcode)) {
+                instr = Instructions.get(opcode);
+                address += 1;
+            } else {
+                break;
+            }
+
+            instructions.add(instr);
+            operandAddresses.add(address);
+            address += instr.getImmediateBytes();
+
+            if (instr.endsBlock())
+                break;
+        }
+
+        if (instructions.isEmpty())
+            return null;
+
+        return new Block(bank,
+                startAddress,
+                address,
+                instructions.toArray(new Instruction[0]),
+                operandAddresses.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
@@ -0,0 +1,159 @@
+package cpu.jit;
+
+import memory.AddressSpace;
+import memory.MMU;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Remembers which ROM blocks got hot between runs, one file per cartridge named after its header global checksum
+ * and the compiler version. Only the keys are stored, never code: the file sits in a user writable directory,
+ * so on load every block is decoded again from the loaded ROM and compiled again before it's installed.
+ * Every entry stores the ROM bytes the block was decoded from and the operand address of each instruction;
+ * an entry that doesn't match what decoding the loaded ROM gives (a different cartridge with the same checksum,
+ * a patched ROM, a block cut differently) is dropped. RAM and boot ROM blocks are never stored.
+ *
+ * File layout: magic, format, version, checksum, entry count, then per entry
+ * bank (u16), start address (u16), ROM bytes (u16 length + bytes), operand addresses (u16 count + u16 each).
+ * */
+public class BlockDiskCache {
+
+    private static final int MAGIC = 0x45474243; // "EGBC"
+    // Format 1 stored class files, they are ignored
+    private static final int FORMAT = 2;
+
+    private final Path file;
+    private final MMU mmu;
+    private final BlockCompiler compiler;
+
+    public BlockDiskCache(Path directory, MMU mmu, BlockCompiler compiler) {
+        this.file = directory.resolve(String.format("%04X-v%d.blocks", mmu.getGlobalChecksum(), BlockCompiler.VERSION));
+        this.mmu = mmu;
+        this.compiler = compiler;
+    }
+
+    // Compiles every valid cached block and puts it into the block cache, returns the number of loaded blocks
+    public int load(BlockCache blockCache) {
+        if (!Files.isRegularFile(file))
+            return 0;
+
+        var loaded = 0;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC
+                    || in.readInt() != FORMAT
+                    || in.readInt() != BlockCompiler.VERSION
+                    || in.readUnsignedShort() != mmu.getGlobalChecksum())
+                return 0;
+
+            var count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                var bank = in.readUnsignedShort();
+                var startAddress = in.readUnsignedShort();
+                var romBytes = new byte[in.readUnsignedShort()];
+                in.readFully(romBytes);
+                var operandAddresses = new int[in.readUnsignedShort()];
+                for (int j = 0; j < operandAddresses.length; j++)
+                    operandAddresses[j] = in.readUnsignedShort();
+
+                var block = restore(bank, startAddress, romBytes, operandAddresses);
+                if (block != null) {
+                    blockCache.put(block);
+                    loaded++;
+                }
+            }
+        } catch (IOException e) {
+            // A broken cache only costs the warm-up, the file is rewritten on the next save
+            System.err.println(String.format("Could not read block cache %s: %s", file, e.getMessage()));
+        }
+        return loaded;
+    }
+
+    private Block restore(int bank, int startAddress, byte[] romBytes, int[] operandAddresses) {
+        if (bank >= mmu.getRomBankCount() || startAddress + romBytes.length > 0x8000)
+            return null;
+        for (int i = 0; i < romBytes.length; i++) {
+            if (mmu.getRomByte(bank, startAddress + i) != (romBytes[i] & 0xFF))
+                return null;
+        }
+
+        // Same bytes decode to the same instructions, the executors are taken from this run's instruction table
+        var block = new BlockDecoder(new RomBankView(mmu, bank)).decode(startAddress, bank);
+        if (block == null
+                || block.getEndAddress() != startAddress + romBytes.length
+                || !Arrays.equals(block.getOperandAddresses(), operandAddresses))
+            return null;
+
+        try {
+            block.setCompiled(compiler.compile(block));
+        } catch (IllegalStateException e) {
+            return null;
+        }
+        return block;
+    }
+
+    // Writes to a temporary file first, so a crash while saving never leaves a truncated cache behind.
+    // Called from the compiler thread and the shutdown hook
+    public synchronized void save(List<Block> blocks) {
+        try {
+            Files.createDirectories(file.getParent());
+            var tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeInt(BlockCompiler.VERSION);
+                out.writeShort(mmu.getGlobalChecksum());
+
+                var stored = blocks.stream()
+                        .filter(block -> block.getBank() != BlockCache.BOOT_BANK)
+                        .toList();
+                out.writeInt(stored.size());
+                for (var block : stored) {
+                    var startAddress = block.getStartAddress();
+                    var endAddress = Math.min(block.getEndAddress(), 0x8000);
+                    out.writeShort(block.getBank());
+                    out.writeShort(startAddress);
+                    out.writeShort(endAddress - startAddress);
+                    for (int address = startAddress; address < endAddress; address++)
+                        out.writeByte(mmu.getRomByte(block.getBank(), address));
+                    out.writeShort(block.getOperandAddresses().length);
+                    for (var operandAddress : block.getOperandAddresses())
+                        out.writeShort(operandAddress);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println(String.format("Could not write block cache %s: %s", file, e.getMessage()));
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Lets the decoder read a bank that isn't mapped at the moment
+    private static class RomBankView implements AddressSpace {
+
+        private final MMU mmu;
+        private final int bank;
+
+        RomBankView(MMU mmu, int bank) {
+            this.mmu = mmu;
+            this.bank = bank;
+        }
+
+        @Override
+        public void set(int address, int value) {
+            throw new IllegalStateException(String.format("Cannot write to ROM bank %02X!", bank));
+        }
+
+        @Override
+        public int get(int address) {
+            return address < 0x8000 ? mmu.getRomByte(bank, address) : 0;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cpu.jit;
+
+import cpu.Context;
+import cpu.ExecutionEngine;
+import cpu.Interpreter;
+import cpu.Registers;
+import cpu.interrupt.InterruptManager;
+import cpu.scheduler.Scheduler;
+import memory.MMU;
+
+import java.nio.file.Path;
+
+/*
+ * Runs code one basic block at a time. Blocks are decoded on first use and cached by ROM bank and address.
+ * A block is interpreted until it has run hotThreshold times, then it's compiled to JVM bytecode in the background.
+ * Boot ROM blocks are never compiled. Anything that can't be put into a block goes through the interpreter.
+ * Blocks move the clock after every instruction and stop early when an interrupt is due or the ROM bank changes.
+ * Compiled ROM blocks are listed in a per cartridge disk cache on exit and whenever compilation goes quiet,
+ * and compiled right away on the next run.
+ * */
+public class BlockEngine implements ExecutionEngine {
+
+    private final Registers registers;
+    private final MMU mmu;
+    private final InterruptManager interruptManager;
+    private final Interpreter interpreter;
+    private final BlockClock clock;
+
+    private final BlockCache blockCache;
+    private final BlockDecoder decoder;
+    private final CompileQueue compileQueue;
+    private final JitMetrics metrics = new JitMetrics();
+    private final BlockDiskCache diskCache;
+
+    // -Despressogb.jit.threshold=n, number of executions after which a block is compiled
+    private final int hotThreshold = Integer.getInteger("espressogb.jit.threshold", 500);
+    // -Despressogb.jit.cacheDir=path, -Despressogb.jit.diskCache=false turns the disk cache off
+    private final boolean diskCacheEnabled = !"false".equals(System.getProperty("espressogb.jit.diskCache"));
+    private final Path cacheDir = Path.of(System.getProperty("espressogb.jit.cacheDir",
+            Path.of(System.getProperty("user.home"), ".cache", "espressogb").toString()));
+    // -Despressogb.jit.quietMillis=n, time without new hot blocks after which the disk cache is saved
+    private final long quietMillis = Long.getLong("espressogb.jit.quietMillis", 5000);
+
+    private final Context context = new Context();
+
+    public BlockEngine(Registers registers, MMU mmu, InterruptManager interruptManager, Scheduler scheduler) {
+        this.registers = registers;
+        this.mmu = mmu;
+        this.interruptManager = interruptManager;
+        this.interpreter = new Interpreter(registers, mmu, interruptManager, scheduler);
+        this.clock = new BlockClock(scheduler, interruptManager, mmu::getRomBank);
+        this.blockCache = new BlockCache(mmu);
+        this.decoder = new BlockDecoder(mmu);
+        var compiler = new BlockCompiler();
+        // Saves the disk cache from the compiler thread once compilation goes quiet
+        this.compileQueue = new CompileQueue(compiler, metrics, quietMillis, this::saveDiskCache);
+        this.diskCache = new BlockDiskCache(cacheDir, mmu, compiler);
+
+        mmu.setBlockCache(blockCache);
+        if (diskCacheEnabled)
+            metrics.blocksLoaded(diskCache.load(blockCache));
+    }
+
+    @Override
+    public int execute() {
+        var pc = registers.getPC();
+        if (!BlockCache.isCacheable(pc))
+            return interpreter.execute();
+
+        var block = blockCache.get(pc);
+        if (block == null) {
+            block = decoder.decode(pc, blockCache.bankOf(pc));
+            if (block == null)
+                return interpreter.execute();
+
+            if (block.getBank() == BlockCache.BOOT_BANK)
+                block.disableCompilation();
+            blockCache.put(block);
+        }
+
+        if (block.getCompiled() == null
+                && block.isCompilable()
+                && block.incrementExecutionCount() == hotThreshold) {
+            compileQueue.submit(block);
+        }
+
+        return block.execute(registers, mmu, context, interruptManager, clock);
+    }
+
+    // Called on exit and from the compiler thread, blocks still waiting in the compile queue are not saved
+    public void saveDiskCache() {
+        if (diskCacheEnabled)
+            diskCache.save(blockCache.getCompiledRomBlocks());
+    }
+
+    public JitMetrics getMetrics() {
+        return metrics;
+    }
+}
@@ -0,0 +1,70 @@
+package cpu.jit;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Compiles hot blocks on a separate low priority thread, so the emulation thread never waits for the compiler.
+ * The block keeps being interpreted until its compiled code is installed.
+ * Once nothing got hot for quietMillis after some blocks were compiled, onQuiet runs on the compiler thread.
+ * */
+public class CompileQueue {
+
+    private final BlockingQueue<Block> queue = new LinkedBlockingQueue<>();
+    private final BlockCompiler compiler;
+    private final JitMetrics metrics;
+    private final long quietMillis;
+    private final Runnable onQuiet;
+
+    public CompileQueue(BlockCompiler compiler, JitMetrics metrics, long quietMillis, Runnable onQuiet) {
+        this.compiler = compiler;
+        this.metrics = metrics;
+        this.quietMillis = quietMillis;
+        this.onQuiet = onQuiet;
+
+        var thread = new Thread(this::run, "block-compiler");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    public void submit(Block block) {
+        block.setQueuedAt(System.nanoTime());
+        metrics.blockQueued();
+        queue.add(block);
+    }
+
+    private void run() {
+        var compiledSinceQuiet = false;
+        while (true) {
+            Block block;
+            try {
+                block = queue.poll(quietMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (block == null) {
+                if (compiledSinceQuiet) {
+                    compiledSinceQuiet = false;
+                    onQuiet.run();
+                }
+                continue;
+            }
+            metrics.blockTaken();
+
+            try {
+                // Volatile write, the emulation thread picks the compiled code up on the next execution of the block
+                block.setCompiled(compiler.compile(block));
+                metrics.blockCompiled(System.nanoTime() - block.getQueuedAt());
+                compiledSinceQuiet = true;
+            } catch (RuntimeException e) {
+                // The block stays interpreted, anything thrown here is a compiler bug so the whole trace is kept
+                block.disableCompilation();
+                metrics.blockFailed();
+                System.err.println(String.format("Compiling block at %02X:%04X failed", block.getBank(), block.getStartAddress()));
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package cpu.jit;
+
+import cpu.Context;
+import cpu.Registers;
+import cpu.interrupt.InterruptManager;
+import memory.AddressSpace;
+
+public interface CompiledBlock {
+
+    // Runs the block until its end or until the clock tells it to stop, the clock counts the cycles it took
+    void execute(Registers registers, AddressSpace addressSpace, Context context, InterruptManager interruptManager, BlockClock clock);
+}
@@ -0,0 +1,75 @@
+package cpu.jit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Updated by both the emulation and the compiler thread
+public class JitMetrics {
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong compiledBlocks = new AtomicLong();
+    private final AtomicLong failedBlocks = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile long lastLatencyNanos;
+    private volatile int loadedBlocks;
+
+    void blockQueued() {
+        queueDepth.incrementAndGet();
+    }
+
+    void blockTaken() {
+        queueDepth.decrementAndGet();
+    }
+
+    // Latency is measured from the moment the block got hot to the moment compiled code was installed
+    void blockCompiled(long latencyNanos) {
+        compiledBlocks.incrementAndGet();
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        lastLatencyNanos = latencyNanos;
+    }
+
+    void blockFailed() {
+        failedBlocks.incrementAndGet();
+    }
+
+    void blocksLoaded(int count) {
+        loadedBlocks = count;
+    }
+
+    public int getLoadedBlocks() {
+        return loadedBlocks;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getCompiledBlocks() {
+        return compiledBlocks.get();
+    }
+
+    public long getFailedBlocks() {
+        return failedBlocks.get();
+    }
+
+    public double getAverageLatencyMillis() {
+        var compiled = compiledBlocks.get();
+        return compiled == 0 ? 0 : totalLatencyNanos.get() / (compiled * 1_000_000.0);
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+
+    public double getLastLatencyMillis() {
+        return lastLatencyNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JIT: %d blocks loaded from disk, %d blocks compiled, %d failed, queue depth %d, compile latency avg %.3f ms, max %.3f ms, last %.3f ms",
+                getLoadedBlocks(), getCompiledBlocks(), getFailedBlocks(), getQueueDepth(), getAverageLatencyMillis(), getMaxLatencyMillis(), getLastLatencyMillis());
+    }
+}
@@ -0,0 +1,9 @@
+package cpu.scheduler;
+
+// Everything that can happen at a known cycle, each kind has at most one pending deadline
+public enum Event {
+    PPU_MODE,
+    TIMA_OVERFLOW,
+    SERIAL,
+    APU
+}
@@ -0,0 +1,7 @@
+package cpu.scheduler;
+
+@FunctionalInterface
+public interface EventHandler {
+    // Gets the deadline the event was scheduled for, the clock may already be past it
+    void onEvent(long deadline);
+}
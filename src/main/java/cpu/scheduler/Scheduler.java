@@ -0,0 +1,94 @@
+package cpu.scheduler;
+
+import java.util.Arrays;
+
+/*
+ * Owns the cycle clock (M-cycles since power on). Subsystems register the absolute cycle of their next event,
+ * the CPU only advances the clock and runs without stepping anything else until the earliest deadline is reached.
+ *
+ * There is a fixed handful of event kinds with one deadline each, so deadlines are kept in a flat array indexed
+ * by Event with the earliest one cached. That beats a heap at this size: advance() is a single compare and
+ * rescheduling is a scan over a few longs, with no allocation or sift on the hot path.
+ * */
+public class Scheduler {
+
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private static final Event[] EVENTS = Event.values();
+
+    private final long[] deadlines = new long[EVENTS.length];
+    private final EventHandler[] handlers = new EventHandler[EVENTS.length];
+
+    private long now;
+    private long nextDeadline = NEVER;
+    private int nextEvent = -1;
+
+    public Scheduler() {
+        Arrays.fill(deadlines, NEVER);
+    }
+
+    public void register(Event event, EventHandler handler) {
+        handlers[event.ordinal()] = handler;
+    }
+
+    public void schedule(Event event, long deadline) {
+        var index = event.ordinal();
+        deadlines[index] = deadline;
+        if (deadline < nextDeadline) {
+            nextDeadline = deadline;
+            nextEvent = index;
+        } else if (index == nextEvent) {
+            findNext();
+        }
+    }
+
+    public void cancel(Event event) {
+        schedule(event, NEVER);
+    }
+
+    public boolean isScheduled(Event event) {
+        return deadlines[event.ordinal()] != NEVER;
+    }
+
+    public long getDeadline(Event event) {
+        return deadlines[event.ordinal()];
+    }
+
+    // Moves the clock forward and runs every event that became due, in deadline order
+    public void advance(int cycles) {
+        now += cycles;
+        while (now >= nextDeadline) {
+            var index = nextEvent;
+            var deadline = nextDeadline;
+            deadlines[index] = NEVER;
+            findNext();
+            handlers[index].onEvent(deadline);
+        }
+    }
+
+    // Cycles until the earliest event is due, at least 1 so the clock always moves
+    public int cyclesToNextEvent() {
+        if (nextDeadline == NEVER)
+            return 1;
+        return (int) Math.max(1, nextDeadline - now);
+    }
+
+    public long getNow() {
+        return now;
+    }
+
+    public long getNextDeadline() {
+        return nextDeadline;
+    }
+
+    private void findNext() {
+        nextDeadline = NEVER;
+        nextEvent = -1;
+        for (int i = 0; i < deadlines.length; i++) {
+            if (deadlines[i] < nextDeadline) {
+                nextDeadline = deadlines[i];
+                nextEvent = i;
+            }
+        }
+    }
+}
@@ -12,4 +12,8 @@ public enum TimerRegs {
     TimerRegs(int address) {
         this.address = address;
     }
+
+    public int getAddress() {
+        return address;
+    }
 }
\ No newline at end of file
@@ -1,66 +1,123 @@
 package cpu.timer;
 
+import cpu.interrupt.InterruptController;
 import cpu.interrupt.InterruptEnum;
-import cpu.interrupt.InterruptRegs;
-import memory.MMU;
+import cpu.scheduler.Event;
+import cpu.scheduler.Scheduler;
 
+/*
+ * DIV and TIMA are not stepped, their values are derived from the scheduler clock when they're read.
+ * DIV counts from the cycle it was last reset at, TIMA from the cycle it was last written or reloaded at.
+ * The only event is the next TIMA overflow, rescheduled whenever TIMA, TAC or an overflow changes the count.
+ * Registers 0xFF04-0xFF07 are read and written here by HighMem.
+ * */
 public class Timers {
 
-    private MMU mmu;
-    private long lastCycles;
+    // DIV increments at 16384Hz, every 64 M-cycles
+    private static final int DIV_SHIFT = 6;
 
-    private long mainCounter;
-    private long subCounter;
-    private long divCounter;
+    private final InterruptController interruptController;
+    private final Scheduler scheduler;
 
-    public Timers(MMU mmu, long inputCycles) {
-        this.mmu = mmu;
-        this.lastCycles = inputCycles;
+    private long divResetAt;
+
+    // TIMA value at timaCycle, counting up from there while the timer is on
+    private int tima;
+    private long timaCycle;
+    private int tma;
+    private int tac;
+    // M-cycles per TIMA increment, 0 while the timer is off
+    private int timaPeriod;
+
+    public Timers(InterruptController interruptController, Scheduler scheduler) {
+        this.interruptController = interruptController;
+        this.scheduler = scheduler;
+
+        scheduler.register(Event.TIMA_OVERFLOW, this::onOverflow);
     }
 
-    public void step(long cycles) {
-        var diffCycles = cycles - lastCycles;
-        lastCycles = cycles;
-        subCounter += diffCycles;
-
-        while (subCounter >= 4) {
-            mainCounter++;
-            subCounter -= 4;
-
-            // Div increments at 1/16 base timer
-            divCounter++;
-            if (divCounter == 16) {
-                mmu.set(TimerRegs.DIV.address, (mmu.get(TimerRegs.DIV.address) + 1) & 0xFF);
-                divCounter = 0;
-            }
-        }
+    public int read(int address) {
+        if (address == TimerRegs.DIV.address)
+            return getDiv();
+        if (address == TimerRegs.TIMA.address)
+            return getTima();
+        if (address == TimerRegs.TMA.address)
+            return tma;
+        if (address == TimerRegs.TAC.address)
+            return tac;
+        throw new IllegalStateException(String.format("%04X is not a timer register!", address));
+    }
 
-        if (isTimerOn()) {
-            var threshold = getThreshold();
-            if (mainCounter >= threshold) incTimer();
+    public void write(int address, int value) {
+        if (address == TimerRegs.DIV.address) {
+            // Any write resets DIV
+            divResetAt = scheduler.getNow();
+        } else if (address == TimerRegs.TIMA.address) {
+            syncTima();
+            tima = value;
+            scheduleOverflow();
+        } else if (address == TimerRegs.TMA.address) {
+            // Only used by the next reload
+            tma = value;
+        } else if (address == TimerRegs.TAC.address) {
+            syncTima();
+            tac = value;
+            timaPeriod = isTimerOn() ? getThreshold() * 4 : 0;
+            // The new rate counts from now
+            timaCycle = scheduler.getNow();
+            scheduleOverflow();
+        } else {
+            throw new IllegalStateException(String.format("%04X is not a timer register!", address));
         }
     }
 
-    private void incTimer() {
-        mainCounter = 0;
-        var tima = mmu.get(TimerRegs.TIMA.address);
+    private int getDiv() {
+        return (int) ((scheduler.getNow() - divResetAt) >>> DIV_SHIFT) & 0xFF;
+    }
 
-        if (tima + 1 > 0xFF) {
-            // Overflow interrupt
-            mmu.set(TimerRegs.TIMA.address, mmu.get(TimerRegs.TMA.address));
+    private int getTima() {
+        if (timaPeriod == 0)
+            return tima;
 
-            mmu.set(InterruptRegs.IF.getAddress(), mmu.get(InterruptRegs.IF.getAddress()) | InterruptEnum.TIMER.get());
-        } else {
-            mmu.set(TimerRegs.TIMA.address, tima + 1);
-        }
+        var value = tima + (scheduler.getNow() - timaCycle) / timaPeriod;
+        // Read inside a block that runs past the overflow deadline, before the event got dispatched
+        if (value > 0xFF)
+            value = tma + (value - 0x100) % (0x100 - tma);
+        return (int) value;
+    }
+
+    // Moves the TIMA base to the last increment before now, keeps the phase of the counter
+    private void syncTima() {
+        if (timaPeriod == 0)
+            return;
+
+        var value = getTima();
+        timaCycle += (scheduler.getNow() - timaCycle) / timaPeriod * timaPeriod;
+        tima = value;
+    }
+
+    private void scheduleOverflow() {
+        if (timaPeriod == 0)
+            scheduler.cancel(Event.TIMA_OVERFLOW);
+        else
+            scheduler.schedule(Event.TIMA_OVERFLOW, timaCycle + (long) (0x100 - tima) * timaPeriod);
+    }
+
+    private void onOverflow(long deadline) {
+        tima = tma;
+        timaCycle = deadline;
+        scheduleOverflow();
+
+        interruptController.request(InterruptEnum.TIMER);
     }
 
     private boolean isTimerOn() {
-        return (mmu.get(TimerRegs.TAC.address) & 0x04) > 0;
+        return (tac & 0x04) > 0;
     }
 
+    // In units of 4 M-cycles
     private int getThreshold() {
-        var speed = mmu.get(TimerRegs.TAC.address) & 0x03;
+        var speed = tac & 0x03;
         switch (speed) {
             case 0x0: return 64;
             case 0x1: return 1;
@@ -1,8 +1,7 @@
 package input;
 
+import cpu.interrupt.InterruptController;
 import cpu.interrupt.InterruptEnum;
-import cpu.interrupt.InterruptRegs;
-import memory.AddressSpace;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
@@ -26,10 +25,10 @@ public class InputManager implements KeyListener {
             KeyEvent.VK_X
     );
 
-    private AddressSpace addressSpace;
+    private InterruptController interruptController;
 
-    public void setAddressSpace(AddressSpace addressSpace) {
-        this.addressSpace = addressSpace;
+    public void setInterruptController(InterruptController interruptController) {
+        this.interruptController = interruptController;
     }
 
     @Override
@@ -65,7 +64,7 @@ public class InputManager implements KeyListener {
                     rightColumn &= 0xE;
                     break;
             }
-            addressSpace.set(InterruptRegs.IF.getAddress(), addressSpace.get(InterruptRegs.IF.getAddress()) | InterruptEnum.JOYPAD.get());
+            interruptController.request(InterruptEnum.JOYPAD);
         }
     }
 
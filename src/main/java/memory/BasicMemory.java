@@ -4,10 +4,11 @@ import static cpu.BitUtils.*;
 
 public class BasicMemory implements AddressSpace {
 
-    private final int[] memory;
+    // Unsigned bytes, converted on get
+    private final byte[] memory;
 
     public BasicMemory(int size) {
-        this.memory = new int[size];
+        this.memory = new byte[size];
     }
 
     @Override
@@ -15,24 +16,28 @@ public class BasicMemory implements AddressSpace {
         isShort(address);
         isByte(value);
 
-        memory[address] = value;
+        memory[address] = (byte) value;
     }
 
     @Override
     public int get(int address) {
         isShort(address);
 
-        return memory[address];
+        return memory[address] & 0xFF;
     }
 
     public void forceSet(int address, int value) {
         isByte(value);
 
-        memory[address] = value;
+        memory[address] = (byte) value;
     }
 
     public int forceGet(int address) {
-        return memory[address];
+        return memory[address] & 0xFF;
+    }
+
+    public byte[] getMemory() {
+        return memory;
     }
 
     public int getSize() {
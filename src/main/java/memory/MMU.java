@@ -1,14 +1,20 @@
 package memory;
 
+import cpu.interrupt.InterruptController;
+import cpu.jit.BlockCache;
+import cpu.timer.Timers;
 import input.InputManager;
 import memory.regions.*;
+import ppu.PPU;
 import ppu.Tiles;
 import ppu.oam.SpriteManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 import static cpu.BitUtils.isByte;
 import static cpu.BitUtils.isShort;
@@ -20,29 +26,56 @@ public class MMU implements AddressSpace {
     private boolean afterBios = false;
 
     private final BasicMemory bios;
-    private final BasicMemory loadedROM;
+    // Mapped read only and shared with other instances running the same cartridge, banks are views on it
+    private final RomImage rom;
     private final SwitchableROM[] switchableROMs;
     private final VideoRAM videoRAM;
     private final ExternalRAM[] switchableRAMs;
     private final WorkingRAM workingRAM;
     private final OAM oam;
     private final HighMem highMem;
+    private final byte[] dmaBuffer = new byte[0xA0];
+    // IE and IF live here, not in HighMem
+    private final InterruptController interruptController = new InterruptController();
 
     private int ramBank = 0x0;
     private int romBank = 0x1;
     private RamMode ramMode = ROM;
     private final MBC mbc;
 
+    // Brought up to date and pending lines drawn before VRAM and OAM writes, null until the PPU is created
+    private PPU ppu;
+
+    // Only set when the block engine is used, compiled code has to be dropped when the memory under it changes
+    private BlockCache blockCache;
+
+    /*
+     * One entry per 256B page pointing at the array backing it, the array index is offset + address.
+     * Plain RAM pages are served straight from the arrays, ROM reads from romPages, a null entry sends the access through
+     * getSlow/setSlow, that's I/O, OAM, VRAM writes (tile updates), MBC control writes and RAM pages holding code.
+     * Entries are remapped on bank switches and when the boot ROM is unmapped.
+     * */
+    private final byte[][] readPages = new byte[0x100][];
+    private final int[] readOffsets = new int[0x100];
+    private final byte[][] writePages = new byte[0x100][];
+    private final int[] writeOffsets = new int[0x100];
+    // RAM pages with compiled code in them, writes to those have to go through the block cache
+    private final boolean[] codePages = new boolean[0x100];
+    // 0x0000-0x7FFF, always mapped, index is offset + address like above
+    private final ByteBuffer[] romPages = new ByteBuffer[0x80];
+    private final int[] romOffsets = new int[0x80];
+    private final ByteBuffer biosPage;
+
     public MMU(InputManager inputManager, SpriteManager spriteManager, Tiles tiles, String romPath, String biosPath) throws IOException {
         bios = loadFile(biosPath);
-        loadedROM = loadFile(romPath);
-        mbc = MBC.getMBC(loadedROM.get(0x0147));
+        biosPage = ByteBuffer.wrap(bios.getMemory()).asReadOnlyBuffer();
+        rom = RomImage.open(romPath);
+        mbc = MBC.getMBC(rom.get(0x0147));
 
-        switchableROMs = new SwitchableROM[mbc.getMaxRomSize()];
-        for (int i = 0; i < mbc.getMaxRomSize(); i++) {
-            switchableROMs[i] = i == 0 ? new SwitchableROM(0x0) : new SwitchableROM(0x4000);
-            loadRomBank(i);
-        }
+        // Only the banks the cartridge has, bank numbers past them wrap around like on the real MBC
+        switchableROMs = new SwitchableROM[rom.getBankCount()];
+        for (int i = 0; i < switchableROMs.length; i++)
+            switchableROMs[i] = new SwitchableROM(rom.getBank(i), i == 0 ? 0x0 : RomImage.BANK_SIZE);
 
         switchableRAMs = new ExternalRAM[mbc.getMaxRamSize()];
         for (int i = 0; i < mbc.getMaxRamSize(); i++)
@@ -51,44 +84,176 @@ public class MMU implements AddressSpace {
         videoRAM = new VideoRAM(tiles);
         workingRAM = new WorkingRAM();
         oam = new OAM(spriteManager);
-        highMem = new HighMem(inputManager);
+        highMem = new HighMem(inputManager, interruptController);
+
+        mapBootPage();
+        mapRom(0x01, 0x3F, switchableROMs[0].getBank(), 0x0100);
+        mapRomBank();
+        map(readPages, readOffsets, 0x80, 0x9F, videoRAM.getMemory(), videoRAM.getStart());
+        mapRamBank();
+        map(readPages, readOffsets, 0xC0, 0xDF, workingRAM.getMemory(), workingRAM.getStart());
+        mapWritable(0xC0, 0xDF, workingRAM.getMemory(), workingRAM.getStart());
+        // Echo RAM, writes are not supported
+        map(readPages, readOffsets, 0xE0, 0xFD, workingRAM.getMemory(), workingRAM.getStart());
     }
 
-    private void loadRomBank(int index) {
-        var romSize = loadedROM.getSize();
-        if (index == 0) {
-            for (int i = 0; i < 0x4000 && i < romSize; i++) {
-                switchableROMs[index].set(i, loadedROM.forceGet(i));
-            }
-        } else {
-            for (int i = 0x4000; i < (0x4000 * 2) && ((index - 1) * 0x4000 + i) < romSize; i++) {
-                switchableROMs[index].set(i, loadedROM.forceGet((index - 1) * 0x4000 + i));
-            }
+    // start is the index of the first mapped byte in memory
+    private static void map(byte[][] pages, int[] offsets, int fromPage, int toPage, byte[] memory, int start) {
+        for (int page = fromPage; page <= toPage; page++) {
+            pages[page] = memory;
+            offsets[page] = start - (fromPage << 8);
         }
+    }
+
+    private void mapRom(int fromPage, int toPage, ByteBuffer bank, int start) {
+        for (int page = fromPage; page <= toPage; page++) {
+            romPages[page] = bank;
+            romOffsets[page] = start - (fromPage << 8);
+        }
+    }
+
+    // Skips pages with code, writes to them are left to the slow path
+    private void mapWritable(int fromPage, int toPage, byte[] memory, int start) {
+        for (int page = fromPage; page <= toPage; page++) {
+            if (codePages[page])
+                continue;
+            writePages[page] = memory;
+            writeOffsets[page] = start - (fromPage << 8);
+        }
+    }
 
+    private void mapBootPage() {
+        mapRom(0x00, 0x00, afterBios ? switchableROMs[0].getBank() : biosPage, 0);
+    }
+
+    private void mapRomBank() {
+        mapRom(0x40, 0x7F, switchableROMs[getRomBank()].getBank(), 0);
+    }
+
+    private void mapRamBank() {
+        if (ramBank < switchableRAMs.length) {
+            var bank = switchableRAMs[ramBank];
+            map(readPages, readOffsets, 0xA0, 0xBF, bank.getMemory(), bank.getStart());
+            mapWritable(0xA0, 0xBF, bank.getMemory(), bank.getStart());
+        } else {
+            Arrays.fill(readPages, 0xA0, 0xC0, null);
+            Arrays.fill(writePages, 0xA0, 0xC0, null);
+        }
     }
 
     public void setAfterBios() {
         afterBios = true;
+        mapBootPage();
+    }
+
+    public boolean isAfterBios() {
+        return afterBios;
     }
 
+    // Bank mapped at 0x4000-0x7FFF
+    public int getRomBank() {
+        return romBank % switchableROMs.length;
+    }
+
+    public int getRomBankCount() {
+        return switchableROMs.length;
+    }
+
+    // Cartridge header global checksum at 0x014E-0x014F, big endian
+    public int getGlobalChecksum() {
+        return (rom.get(0x014E) << 8) | rom.get(0x014F);
+    }
+
+    // Reads a ROM byte from the given bank regardless of which one is mapped, never sees the boot ROM
+    public int getRomByte(int bank, int address) {
+        return address < 0x4000 ? switchableROMs[0].get(address) : switchableROMs[bank].get(address);
+    }
+
+    // Second column of every region is the estimated int per byte layout, see MemoryFootprint
+    public MemoryFootprint getFootprint() {
+        var footprint = new MemoryFootprint();
+        // The mapped image is off heap and shared, only padded banks of odd sized ROMs are on the heap
+        footprint.add("ROM", rom.getHeapBytes(), 4L * (rom.getSize() + 1) + 4L * RomImage.BANK_SIZE * mbc.getMaxRomSize());
+        footprint.add("boot ROM", bios.getSize(), 4L * bios.getSize());
+        footprint.add("VRAM", videoRAM.getSize(), 4L * videoRAM.getSize());
+        footprint.add("ext RAM", (long) switchableRAMs.length * 0x2000, 4L * switchableRAMs.length * 0x2000);
+        footprint.add("WRAM", workingRAM.getSize(), 4L * workingRAM.getSize());
+        footprint.add("OAM", oam.getSize(), 4L * oam.getSize());
+        footprint.add("HighMem", highMem.getSize(), 4L * highMem.getSize());
+        return footprint;
+    }
+
+    public void setBlockCache(BlockCache blockCache) {
+        this.blockCache = blockCache;
+    }
+
+    // Timer registers are derived from the cycle counter, HighMem hands their reads and writes to Timers
+    public void setTimers(Timers timers) {
+        highMem.setTimers(timers);
+    }
+
+    // PPU registers, VRAM and OAM writes sync the PPU first
+    public void setPPU(PPU ppu) {
+        this.ppu = ppu;
+        highMem.setPPU(ppu);
+        ppu.setVideoRAM(videoRAM.getMemory(), videoRAM.getStart());
+    }
+
+    public InterruptController getInterruptController() {
+        return interruptController;
+    }
+
+    // Called by the block cache for RAM it decoded code from, writes to these pages invalidate blocks from now on
+    public void protectCodePages(int from, int to) {
+        for (int page = from >>> 8; page <= (to >>> 8) && page < 0x100; page++) {
+            codePages[page] = true;
+            writePages[page] = null;
+        }
+    }
+
+    // Arguments are checked before the page lookup, an out of range address would otherwise index past the tables
     @Override
     public void set(int address, int value) {
         isShort(address);
         isByte(value);
 
-        // OAM DMA
+        var page = address >>> 8;
+        var memory = writePages[page];
+        if (memory != null) {
+            memory[writeOffsets[page] + address] = (byte) value;
+            return;
+        }
+        setSlow(address, value);
+    }
+
+    @Override
+    public int get(int address) {
+        isShort(address);
+
+        var page = address >>> 8;
+        if (address < 0x8000)
+            return romPages[page].get(romOffsets[page] + address) & 0xFF;
+
+        var memory = readPages[page];
+        if (memory != null)
+            return memory[readOffsets[page] + address] & 0xFF;
+        return getSlow(address);
+    }
+
+    private void setSlow(int address, int value) {
+        // OAM DMA, sprites are indexed once for the whole copy
         if (address == 0xFF46) {
             var destAdress = (value << 8) & 0xFF00;
-            for (int i = 0; i < 160; i++) {
-                set(0xFE00 + i, get(destAdress + i));
+            for (int i = 0; i < dmaBuffer.length; i++) {
+                dmaBuffer[i] = (byte) get(destAdress + i);
             }
+            if (ppu != null) ppu.beforeWrite(0xFE00);
+            oam.load(dmaBuffer);
         }
 
         if (address <= 0x3FFF) {
-            if (!afterBios) {
-                switchableROMs[0].set(address, value);
-            } else if (mbc != MBC.NONE && address >= 0x2000) {
+            // The boot ROM has no MBC to talk to and the ROM image is read only, writes before it's done are dropped
+            if (afterBios && mbc != MBC.NONE && address >= 0x2000) {
                 // ROM bank setting
                 switch (value & 0x1F) {
                     case 0x0:
@@ -106,18 +271,22 @@ public class MMU implements AddressSpace {
                     default:
                         romBank = (romBank & 0x60) | (value & 0x1F);
                 }
+                mapRomBank();
             }
         } else if (address <= 0x7FFF) {
             if (!afterBios) {
-                switchableROMs[romBank].set(address, value);
+                // Dropped like the writes below 0x4000
             } else if (mbc != MBC.NONE && address <= 0x5FFF) {
                 // RAM bank setting
                 switch (ramMode) {
                     case ROM:
                         romBank = (romBank & 0x1F) | ((value & 0x3) << 5);
+                        mapRomBank();
                         break;
                     case RAM:
                         ramBank = value & 0x3;
+                        mapRamBank();
+                        if (blockCache != null) blockCache.invalidateRange(0xA000, 0xBFFF);
                         break;
                 }
 
@@ -125,29 +294,32 @@ public class MMU implements AddressSpace {
                 ramMode = (value & 0x1) > 0 ? RAM : ROM;
             }
         } else if (address <= 0x9FFF) {
+            if (ppu != null) ppu.beforeWrite(address);
             videoRAM.set(address, value);
+            if (blockCache != null) blockCache.invalidateWrite(address);
         } else if (address <= 0xBFFF) {
             switchableRAMs[ramBank].set(address, value);
+            if (blockCache != null) blockCache.invalidateWrite(address);
         } else if (address <= 0xDFFF) {
             workingRAM.set(address, value);
+            if (blockCache != null) blockCache.invalidateWrite(address);
         } else if (address >= 0xFE00 && address <= 0xFE9F) {
+            if (ppu != null) ppu.beforeWrite(address);
             oam.set(address, value);
         } else if (address >= 0xFF00 && address <= 0xFFFF) {
             highMem.set(address, value);
+            if (blockCache != null && address >= 0xFF80) blockCache.invalidateWrite(address);
         } else
             System.out.println((String.format("Trying to write to address: %04X, skipping...", address)));
     }
 
-    @Override
-    public int get(int address) {
-        isShort(address);
-
+    private int getSlow(int address) {
         if (!afterBios && address < 0x0100) {
             return bios.get(address);
         } else if (address <= 0x3FFF) {
             return switchableROMs[0].get(address);
         } else if (address <= 0x7FFF) {
-            return switchableROMs[romBank].get(address);
+            return switchableROMs[getRomBank()].get(address);
         } else if (address <= 0x9FFF) {
             return videoRAM.get(address);
         } else if (address <= 0xBFFF) {
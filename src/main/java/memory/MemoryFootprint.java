@@ -0,0 +1,33 @@
+package memory;
+
+/*
+ * Heap taken by the memory regions of one emulator instance, next to an estimate of what the same regions took
+ * with one int per byte and a separate copy of every ROM bank. The estimate is 4 bytes per emulated byte worked
+ * out from the region sizes, nothing of the old layout is measured; array headers and padding are left out.
+ * */
+public class MemoryFootprint {
+
+    private final StringBuilder regions = new StringBuilder();
+    private long bytes;
+    private long estimatedIntLayoutBytes;
+
+    public void add(String region, long bytes, long estimatedIntLayoutBytes) {
+        this.bytes += bytes;
+        this.estimatedIntLayoutBytes += estimatedIntLayoutBytes;
+        regions.append(String.format("  %-10s %8.1f KiB (int layout est. %8.1f KiB)%n", region, bytes / 1024.0, estimatedIntLayoutBytes / 1024.0));
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getEstimatedIntLayoutBytes() {
+        return estimatedIntLayoutBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Memory footprint:%n%s  %-10s %8.1f KiB (int layout est. %8.1f KiB), about %.1fx smaller",
+                regions, "total", bytes / 1024.0, estimatedIntLayoutBytes / 1024.0, (double) estimatedIntLayoutBytes / bytes);
+    }
+}
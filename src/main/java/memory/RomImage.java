@@ -0,0 +1,120 @@
+package memory;
+
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * A cartridge ROM file mapped read only into memory. Images are cached per file for the whole process,
+ * so every emulator instance running the same cartridge shares one mapping and the OS page cache behind it.
+ * An image is dropped from the cache once no instance uses it anymore, or when the file changes.
+ * Entries of images that were garbage collected are removed on the next open.
+ * */
+public final class RomImage {
+
+    public static final int BANK_SIZE = 0x4000;
+
+    private static final Map<Path, CachedImage> CACHE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<RomImage> COLLECTED = new ReferenceQueue<>();
+
+    private final ByteBuffer data;
+    private final long size;
+    private final FileTime lastModified;
+    // Read only views on the mapping, a bank the file ends in the middle of is a zero padded copy instead
+    private final ByteBuffer[] banks;
+    private int paddedBanks;
+
+    private RomImage(ByteBuffer data, long size, FileTime lastModified) {
+        this.data = data;
+        this.size = size;
+        this.lastModified = lastModified;
+
+        // Whole banks, at least the two mapped at 0x0000-0x7FFF
+        banks = new ByteBuffer[(int) Math.max(2, (size + BANK_SIZE - 1) / BANK_SIZE)];
+        for (int bank = 0; bank < banks.length; bank++) {
+            var start = bank * BANK_SIZE;
+            if (start + BANK_SIZE <= size) {
+                banks[bank] = data.slice(start, BANK_SIZE);
+            } else {
+                var bytes = new byte[BANK_SIZE];
+                if (start < size)
+                    data.get(start, bytes, 0, (int) size - start);
+                banks[bank] = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+                paddedBanks++;
+            }
+        }
+    }
+
+    // Synchronized so two instances opening the same file at once still share one mapping
+    public static synchronized RomImage open(String path) throws IOException {
+        removeCollected();
+
+        var file = Path.of(path).toRealPath();
+        var size = Files.size(file);
+        var lastModified = Files.getLastModifiedTime(file);
+
+        var cached = CACHE.get(file);
+        var image = cached == null ? null : cached.get();
+        if (image != null && image.size == size && image.lastModified.equals(lastModified))
+            return image;
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            image = new RomImage(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), size, lastModified);
+        }
+        CACHE.put(file, new CachedImage(file, image));
+        return image;
+    }
+
+    // Only removes the entry if it wasn't replaced by a newer mapping of the same file meanwhile
+    private static void removeCollected() {
+        CachedImage collected;
+        while ((collected = (CachedImage) COLLECTED.poll()) != null)
+            CACHE.remove(collected.file, collected);
+    }
+
+    static boolean isCached(Path file) {
+        removeCollected();
+        return CACHE.containsKey(file);
+    }
+
+    public int getBankCount() {
+        return banks.length;
+    }
+
+    public ByteBuffer getBank(int bank) {
+        return banks[bank];
+    }
+
+    public int get(int offset) {
+        return offset < size ? data.get(offset) & 0xFF : 0;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    // Heap taken by the image, the mapping itself is outside the heap and shared
+    public long getHeapBytes() {
+        return (long) paddedBanks * BANK_SIZE;
+    }
+
+    // Keeps the file so the entry can be found once the image is collected
+    private static class CachedImage extends WeakReference<RomImage> {
+
+        private final Path file;
+
+        CachedImage(Path file, RomImage image) {
+            super(image, COLLECTED);
+            this.file = file;
+        }
+    }
+}
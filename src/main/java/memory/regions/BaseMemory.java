@@ -6,21 +6,41 @@ public abstract class BaseMemory implements AddressSpace {
 
     protected final int firstAddress;
     protected final int size;
-    protected final int[] memory;
+    // Unsigned bytes, converted on get
+    protected final byte[] memory;
+    // Index of firstAddress in memory, a region can be a view on a bigger array
+    protected final int start;
 
     protected BaseMemory(int size, int firstAddress) {
+        this(new byte[size], 0, size, firstAddress);
+    }
+
+    protected BaseMemory(byte[] memory, int start, int size, int firstAddress) {
         this.firstAddress = firstAddress;
         this.size = size;
-        memory = new int[size];
+        this.memory = memory;
+        this.start = start;
+    }
+
+    public byte[] getMemory() {
+        return memory;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getSize() {
+        return size;
     }
 
     @Override
     public void set(int address, int value) {
-        memory[address - firstAddress] = value;
+        memory[start + address - firstAddress] = (byte) value;
     }
 
     @Override
     public int get(int address) {
-        return memory[address - firstAddress];
+        return memory[start + address - firstAddress] & 0xFF;
     }
 }
@@ -1,20 +1,65 @@
 package memory.regions;
 
+import cpu.interrupt.InterruptController;
+import cpu.interrupt.InterruptRegs;
+import cpu.timer.TimerRegs;
+import cpu.timer.Timers;
 import input.InputManager;
+import ppu.GPURegs;
+import ppu.PPU;
 
 public class HighMem extends BaseMemory {
 
     private final InputManager inputManager;
+    private final InterruptController interruptController;
+    private Timers timers;
+    private PPU ppu;
 
-    public HighMem(InputManager inputManager) {
+    public HighMem(InputManager inputManager, InterruptController interruptController) {
         // 256B
         super(0x0100, 0xFF00);
         this.inputManager = inputManager;
+        this.interruptController = interruptController;
+    }
+
+    public void setTimers(Timers timers) {
+        this.timers = timers;
+    }
+
+    public void setPPU(PPU ppu) {
+        this.ppu = ppu;
+    }
+
+    private boolean isPPUReg(int address) {
+        return ppu != null && address >= GPURegs.LCDC.address() && address <= GPURegs.WX.address();
+    }
+
+    private boolean isTimerReg(int address) {
+        return timers != null && address >= TimerRegs.DIV.getAddress() && address <= TimerRegs.TAC.getAddress();
     }
 
     @Override
     public void set(int address, int value) {
-        memory[address - firstAddress] = value;
+        if (isTimerReg(address)) {
+            timers.write(address, value);
+            return;
+        }
+        if (address == InterruptRegs.IF.getAddress()) {
+            interruptController.setIF(value);
+            return;
+        }
+        if (address == InterruptRegs.IE.getAddress()) {
+            interruptController.setIE(value);
+            return;
+        }
+        if (isPPUReg(address)) {
+            // Lines up to now are drawn with the old value
+            ppu.beforeWrite(address);
+            super.set(address, value);
+            ppu.onRegisterWritten(address, value);
+            return;
+        }
+        super.set(address, value);
 
         if (address == 0xFF00) {
             inputManager.setInputColumn(value & 0x30);
@@ -25,10 +70,23 @@ public class HighMem extends BaseMemory {
     public int get(int address) {
         if (address == 0xFF00)
             return inputManager.getKeys();
+        if (isTimerReg(address))
+            return timers.read(address);
+        if (isPPUReg(address)) {
+            if (address == GPURegs.LY.address())
+                return ppu.getLY();
+            if (address == GPURegs.STAT.address())
+                return ppu.getSTAT();
+            ppu.catchUp();
+        }
         if (address == 0xFF41)
-            return memory[address - firstAddress] | 0x80;
+            return super.get(address) | 0x80;
+        if (address == InterruptRegs.IF.getAddress())
+            return interruptController.getIF();
+        if (address == InterruptRegs.IE.getAddress())
+            return interruptController.getIE();
 
-        return memory[address - firstAddress];
+        return super.get(address);
     }
 
 }
@@ -14,8 +14,14 @@ public class OAM extends BaseMemory {
 
     @Override
     public void set(int address, int value) {
-        memory[address - firstAddress] = value;
+        super.set(address, value);
         spriteManager.updateSprite(address, value);
     }
 
+    // OAM DMA, all 160 bytes
+    public void load(byte[] data) {
+        System.arraycopy(data, 0, memory, start, size);
+        spriteManager.load(memory, start);
+    }
+
 }
@@ -1,9 +1,31 @@
 package memory.regions;
 
-public class SwitchableROM extends BaseMemory {
-    public SwitchableROM(int firstAddress) {
-        // 16KiB
-        super(0x4000, firstAddress);
+import memory.AddressSpace;
+
+import java.nio.ByteBuffer;
+
+// A 16KiB bank view on a shared ROM image, read only
+public class SwitchableROM implements AddressSpace {
+
+    private final ByteBuffer bank;
+    private final int firstAddress;
+
+    public SwitchableROM(ByteBuffer bank, int firstAddress) {
+        this.bank = bank;
+        this.firstAddress = firstAddress;
     }
 
+    public ByteBuffer getBank() {
+        return bank;
+    }
+
+    @Override
+    public void set(int address, int value) {
+        throw new IllegalStateException(String.format("Trying to write %02X to ROM at %04X", value, address));
+    }
+
+    @Override
+    public int get(int address) {
+        return bank.get(address - firstAddress) & 0xFF;
+    }
 }
@@ -10,13 +10,15 @@ public class VideoRAM extends BaseMemory {
         // 8KiB
         super(0x2000, 0x8000);
         this.tiles = tiles;
+        // Tiles decode rows straight from the backing array
+        tiles.setVideoRAM(memory, start);
     }
 
     @Override
     public void set(int address, int value) {
-        memory[address - firstAddress] = value;
+        super.set(address, value);
         if (address <= 0x97FF)
-            tiles.updateTile(address);
+            tiles.markDirty(address);
 
     }
 
@@ -2,23 +2,41 @@ package ppu;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyListener;
 import java.awt.image.BufferedImage;
-
-public class Display extends JPanel implements Runnable {
-
-    private boolean doRefresh = false;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Pixels are written unscaled straight into the int array backing an image, paintComponent scales it when drawing.
+ *
+ * Frames are handed to Swing through three images. The emulation thread draws into the back one, the EDT paints
+ * the front one and the middle one holds the latest finished frame. Both sides only ever swap their own image
+ * with the middle one, atomically, so neither waits for the other and a frame is never painted while it's drawn.
+ * A finished frame asks Swing to repaint, there's no thread polling for it.
+ * */
+public class Display extends JPanel implements FrameSink {
+
+    // Set on top of the middle index while it holds a frame the EDT has not painted yet
+    private static final int FRESH = 0x4;
 
     public int DISPLAY_WIDTH = 160;
 
     public int DISPLAY_HEIGHT = 144;
 
-    private final BufferedImage img;
+    private final BufferedImage[] images = new BufferedImage[3];
+    private final int[][] buffers = new int[3][];
 
-    protected final int scale;
+    // Only touched by the emulation thread
+    private int back = 0;
+    // Only touched by the EDT
+    private int front = 1;
+    private final AtomicInteger middle = new AtomicInteger(2);
 
-    protected final int[][] rgb;
+    protected final int scale;
 
-    private final int[] singleDimensionRGB;
+    // Backing array of the back image, one RGB int per pixel, row after row
+    protected int[] pixels;
 
     public Display(int scale) {
         this(160, 144, scale);
@@ -28,61 +46,61 @@ public class Display extends JPanel implements Runnable {
         this.DISPLAY_WIDTH = width;
         this.DISPLAY_HEIGHT = height;
         this.scale = scale;
-        this.img = GraphicsEnvironment
-                .getLocalGraphicsEnvironment()
-                .getDefaultScreenDevice()
-                .getDefaultConfiguration()
-                .createCompatibleImage(DISPLAY_WIDTH * scale, DISPLAY_HEIGHT * scale);
-        rgb = new int[DISPLAY_HEIGHT * scale][DISPLAY_WIDTH * scale];
-        singleDimensionRGB = new int[DISPLAY_WIDTH * scale * DISPLAY_HEIGHT * scale];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = new BufferedImage(DISPLAY_WIDTH, DISPLAY_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            buffers[i] = ((DataBufferInt) images[i].getRaster().getDataBuffer()).getData();
+        }
+        pixels = buffers[back];
     }
 
+    // Shows a new display in its own window, Swing is only touched from here on
+    public static FrameSink openWindow(int scale, KeyListener keyListener) {
+        var display = new Display(scale);
+        display.setPreferredSize(new Dimension(160 * scale, 144 * scale));
+
+        var mainWindow = new JFrame("screen");
+        mainWindow.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        mainWindow.setContentPane(display);
+        mainWindow.setResizable(false);
+        mainWindow.setVisible(true);
+        mainWindow.pack();
+        mainWindow.addKeyListener(keyListener);
+
+        return display;
+    }
+
+    // Changes after every requestRefresh
+    @Override
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    // Publishes the back image as the latest frame and continues in the previous middle one
     public void requestRefresh() {
-        this.doRefresh = true;
+        back = middle.getAndSet(back | FRESH) & ~FRESH;
+        pixels = buffers[back];
+        repaint();
     }
 
+    @Override
+    public void frameCompleted() {
+        requestRefresh();
+    }
+
+    // x is the row, y the column
     public void setPixel(int x, int y, int value) {
-        for (int i = 0; i < scale; i++) {
-            for (int j = 0; j < scale; j++) {
-                rgb[x * scale + i][y * scale + j] = value;
-            }
-        }
+        pixels[x * DISPLAY_WIDTH + y] = value;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
+        if ((middle.get() & FRESH) != 0)
+            front = middle.getAndSet(front) & ~FRESH;
+
         var g2d = (Graphics2D) g.create();
-        g2d.drawImage(img, 0, 0, DISPLAY_WIDTH * scale, DISPLAY_HEIGHT * scale, null);
+        g2d.drawImage(images[front], 0, 0, DISPLAY_WIDTH * scale, DISPLAY_HEIGHT * scale, null);
         g2d.dispose();
     }
-
-    @Override
-    public void run() {
-        while (true) {
-            synchronized (this) {
-                try {
-                    wait(1);
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-
-            if (doRefresh) {
-                doRefresh = false;
-
-                for (int i = 0; i < rgb.length; i++) {
-                    for (int j = 0; j < rgb[i].length; j++) {
-                        singleDimensionRGB[i * DISPLAY_WIDTH * scale + j] = rgb[i][j];
-                    }
-                }
-
-                img.setRGB(0, 0, DISPLAY_WIDTH * scale, DISPLAY_HEIGHT * scale, singleDimensionRGB, 0, DISPLAY_WIDTH * scale);
-
-                validate();
-                repaint();
-            }
-        }
-    }
 }
@@ -0,0 +1,16 @@
+package ppu;
+
+/*
+ * Where the PPU draws its frames. The PPU writes 160x144 RGB ints, row after row, straight into the array
+ * returned by getPixels() and calls frameCompleted() when VBLANK starts. A sink can hand out a different
+ * array after every frame, the PPU asks for it again each time.
+ * */
+public interface FrameSink {
+
+    int WIDTH = 160;
+    int HEIGHT = 144;
+
+    int[] getPixels();
+
+    void frameCompleted();
+}
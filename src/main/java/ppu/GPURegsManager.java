@@ -1,131 +1,186 @@
 package ppu;
 
-import cpu.BitUtils;
-import memory.AddressSpace;
-
+/*
+ * Registers the renderer reads are shadowed in decoded form: LCDC bits as booleans and palettes as ARGB colours.
+ * HighMem pushes every PPU register write here through the PPU, so the renderer reads plain fields
+ * instead of going through the MMU and decoding the registers again for every tile.
+ * STAT and LYC live here too. The CPU writes the STAT interrupt sources, the PPU sets the mode and LY == LYC bits,
+ * and CPU reads of STAT are served from here, so the PPU never goes through memory.
+ * */
 public class GPURegsManager {
 
-    private final int[] COLORS = {
+    private static final int[] COLORS = {
             getColor(255, 255, 255),
             getColor(192, 192, 192),
             getColor(96, 96, 96),
-            0
+            getColor(0, 0, 0)
     };
 
     private final int[] bgPalette = new int[4];
     private final int[] firstObjPalette = new int[4];
     private final int[] secondObjPalette = new int[4];
 
-    private final AddressSpace addressSpace;
-
-    public GPURegsManager(AddressSpace addressSpace) {
-        this.addressSpace = addressSpace;
+    private int scy;
+    private int scx;
+    private int wy;
+    private int wx;
+    private int stat;
+    private int lyc;
+
+    // LCDC
+    private boolean backgroundEnabled;
+    private boolean spritesEnabled;
+    private boolean doubleSpritesEnabled;
+    private boolean backgroundMap;
+    private boolean backgroundTiles;
+    private boolean windowEnabled;
+    private boolean secondMapForWindow;
+    private boolean lcdOn;
+
+    public GPURegsManager() {
+        // Registers are all 0 on start
+        updateLCDC(0);
+        updatePalette(bgPalette, 0);
+        updatePalette(firstObjPalette, 0);
+        updatePalette(secondObjPalette, 0);
+    }
+
+    public void onWrite(int address, int value) {
+        if (address == GPURegs.LCDC.address)
+            updateLCDC(value);
+        else if (address == GPURegs.STAT.address)
+            // The low 3 bits are read only
+            stat = (value & 0x78) | (stat & 0x07);
+        else if (address == GPURegs.LYC.address)
+            lyc = value;
+        else if (address == GPURegs.SCY.address)
+            scy = value;
+        else if (address == GPURegs.SCX.address)
+            scx = value;
+        else if (address == GPURegs.WY.address)
+            wy = value;
+        else if (address == GPURegs.WX.address)
+            wx = value;
+        else if (address == GPURegs.BGP.address)
+            updatePalette(bgPalette, value);
+        else if (address == GPURegs.OBJ_PAL_1.address)
+            updatePalette(firstObjPalette, value);
+        else if (address == GPURegs.OBJ_PAL_2.address)
+            updatePalette(secondObjPalette, value);
+    }
+
+    private void updateLCDC(int lcdc) {
+        backgroundEnabled = (lcdc & 0x01) != 0;
+        spritesEnabled = (lcdc & 0x02) != 0;
+        doubleSpritesEnabled = (lcdc & 0x04) != 0;
+        backgroundMap = (lcdc & 0x08) != 0;
+        backgroundTiles = (lcdc & 0x10) == 0;
+        windowEnabled = (lcdc & 0x20) != 0;
+        secondMapForWindow = (lcdc & 0x40) != 0;
+        lcdOn = (lcdc & 0x80) != 0;
+    }
+
+    private static void updatePalette(int[] palette, int paletteReg) {
+        for (int i = 0; i < 4; i++) {
+            palette[i] = COLORS[(paletteReg >> (i * 2)) & 3];
+        }
     }
 
     public int getSCY() {
-        return addressSpace.get(GPURegs.SCY.address);
+        return scy;
     }
 
     public int getSCX() {
-        int scx = addressSpace.get(GPURegs.SCX.address);
-//        System.out.println(scx);
         return scx;
     }
 
     public int getWY() {
-        return addressSpace.get(GPURegs.WY.address);
+        return wy;
     }
 
     public int getWX() {
-        return addressSpace.get(GPURegs.WX.address);
+        return wx;
+    }
+
+    // Bit 7 always reads as 1
+    public int getSTAT() {
+        return stat | 0x80;
+    }
+
+    public int getLYC() {
+        return lyc;
     }
 
     public boolean isBackgroundEnabled() {
-        return BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 0);
+        return backgroundEnabled;
     }
 
     public boolean isSpritesEnabled() {
-        return BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 1);
+        return spritesEnabled;
     }
 
     public boolean isDoubleSpritesEnabled() {
-        return BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 2);
+        return doubleSpritesEnabled;
     }
 
     public boolean isBackgroundMap() {
-        return BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 3);
+        return backgroundMap;
     }
 
     public boolean isBackgroundTiles() {
-        return !BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 4);
+        return backgroundTiles;
     }
 
     public boolean isWindowEnabled() {
-        return BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 5);
+        return windowEnabled;
     }
 
     public boolean useSecondMapForWindow() {
-        return BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 6);
+        return secondMapForWindow;
     }
 
     public boolean isLCDOn() {
-        return BitUtils.getByteBit(addressSpace.get(GPURegs.LCDC.address), 7);
+        return lcdOn;
     }
 
-    // TODO: update palettes in the future only when necessary
+    // Updated in place on writes
     public int[] getBGPalette() {
-        var paletteReg = addressSpace.get(GPURegs.BGP.address);
-        for (int i = 0; i < 4; i++) {
-            bgPalette[i] = COLORS[(paletteReg >> (i * 2)) & 3];
-        }
         return bgPalette;
     }
 
     public int[] getFirstObjPalette() {
-        var paletteReg = addressSpace.get(GPURegs.OBJ_PAL_1.address);
-        for (int i = 0; i < 4; i++) {
-            firstObjPalette[i] = COLORS[(paletteReg >> (i * 2)) & 3];
-        }
         return firstObjPalette;
     }
 
     public int[] getSecondObjPalette() {
-        var paletteReg = addressSpace.get(GPURegs.OBJ_PAL_2.address);
-        for (int i = 0; i < 4; i++) {
-            secondObjPalette[i] = COLORS[(paletteReg >> (i * 2)) & 3];
-        }
         return secondObjPalette;
     }
 
     private static int getColor(int r, int g, int b) {
-        return r << 16 | g << 8 | b;
+        return 0xFF << 24 | r << 16 | g << 8 | b;
     }
 
     public void updateStatMode(Mode mode) {
-        // TODO: update two read only fields not via set method
-        addressSpace.set(GPURegs.STAT.address, (addressSpace.get(GPURegs.STAT.address) & 0xFC) | mode.statIndex);
+        stat = (stat & 0xFC) | mode.statIndex;
     }
 
     public void updateStatLineCountersEqualFlag(boolean value) {
-        addressSpace.set(GPURegs.STAT.address, (addressSpace.get(GPURegs.STAT.address) & 0xFB) | (value ? 1 : 0) << 2);
+        stat = (stat & 0xFB) | (value ? 1 : 0) << 2;
     }
 
     public boolean statLineCountEqualInterruptEnabled() {
-        var stat = addressSpace.get(GPURegs.STAT.address);
-//        System.out.println(stat);
-//        System.out.println((stat & 0x80) > 0);
         return (stat & 0x40) > 0;
     }
 
     public boolean statOAMInterruptSourceEnabled() {
-        return (addressSpace.get(GPURegs.STAT.address) & 0x20) > 0;
+        return (stat & 0x20) > 0;
     }
 
     public boolean statVBlankInterruptSourceEnabled() {
-        return (addressSpace.get(GPURegs.STAT.address) & 0x10) > 0;
+        return (stat & 0x10) > 0;
     }
 
     public boolean statHBlankInterruptSourceEnabled() {
-        return (addressSpace.get(GPURegs.STAT.address) & 0x08) > 0;
+        return (stat & 0x08) > 0;
     }
 }
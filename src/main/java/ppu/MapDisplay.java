@@ -2,7 +2,7 @@ package ppu;
 
 import memory.AddressSpace;
 
-public class MapDisplay extends Display implements Runnable, UtilDisplay {
+public class MapDisplay extends Display implements UtilDisplay {
 
     public static final int DISPLAY_WIDTH = 256;
     public static final int DISPLAY_HEIGHT = 256;
@@ -23,11 +23,13 @@ public class MapDisplay extends Display implements Runnable, UtilDisplay {
     }
 
     @Override
-    public void drawTile(int baseX, int baseY, int[][] tile) {
+    public void drawTile(int baseX, int baseY, int tile) {
         var bgPalette = regsManager.getBGPalette();
-        for (int i = 0; i < 8 * scale; i++) {
-            for (int j = 0; j < 8 * scale; j++) {
-                rgb[baseY + i][baseX + j] = bgPalette[tile[i / scale][j / scale]];
+        var tilePixels = tiles.getPixels();
+        for (int i = 0; i < 8; i++) {
+            var row = tiles.row(tile, i);
+            for (int j = 0; j < 8; j++) {
+                pixels[(baseY + i) * DISPLAY_WIDTH + baseX + j] = bgPalette[tilePixels[row + j]];
             }
         }
     }
@@ -52,13 +54,12 @@ public class MapDisplay extends Display implements Runnable, UtilDisplay {
     public void updateMap() {
         var mapOffset = 0x8000;
         mapOffset += isBackgroundMap ? 0x1C00 : 0x1800;
-        var tileMap = tiles.getTileMap();
 
         for (int y = 0; y < 32; y++) {
             for (int x = 0; x < 32; x++) {
                 var tile = addressSpace.get(mapOffset + y * 32 + x);
                 if (regsManager.isBackgroundTiles() && tile < 128) tile += 256;
-                drawTile(x * 8 * scale, y * 8 * scale, tileMap[tile]);
+                drawTile(x * 8, y * 8, tile);
             }
         }
 
@@ -1,95 +1,224 @@
 package ppu;
 
+import cpu.interrupt.InterruptController;
 import cpu.interrupt.InterruptEnum;
-import cpu.interrupt.InterruptRegs;
-import memory.AddressSpace;
+import cpu.scheduler.Event;
+import cpu.scheduler.Scheduler;
 import ppu.oam.Sprite;
 import ppu.oam.SpriteManager;
 
+/*
+ * The PPU is not stepped along with the CPU, it's brought up to date only when something depends on its state:
+ * the CPU accessing a PPU register, VRAM or OAM, or the next PPU interrupt being due. Catching up runs every mode
+ * transition since the last sync in one go, so the scanlines in between are rendered in bulk.
+ * The only scheduled event is the next transition that requests an interrupt, which is at least the next VBLANK.
+ *
+ * Lines are not drawn when their draw point passes either. They're drawn in one pass when VBLANK starts, unless
+ * a register, VRAM or OAM write comes first. Such a write draws the pending lines before it lands, so every line
+ * still sees the state it had at its draw point and frames without raster effects are drawn all at once.
+ * */
 public class PPU {
 
     private final Tiles tiles;
-    private final Display display;
-    private final AddressSpace addressSpace;
+    private final FrameSink frameSink;
+    // Pixels of the frame being drawn, 160 per line, the sink may hand out a new array after each frame
+    private int[] frame;
+    private long frameCount;
     private final GPURegsManager regsManager;
     private final SpriteManager spriteManager;
+    private final Scheduler scheduler;
+    private final InterruptController interruptController;
     private Mode currentMode;
     private int lineCounter;
-    private int currentModeClockCounter;
     private int[] scanRow;
+    private final int[] lineSprites = new int[SpriteManager.MAX_SPRITES_PER_LINE];
+    // Row offsets in the tile cache of the tiles a background or window line crosses
+    private final int[] lineTiles = new int[21];
 
-    public PPU(AddressSpace addressSpace, GPURegsManager regsManager, SpriteManager spriteManager, Display display, Tiles tiles) {
+    // VRAM backing array and the index of 0x8000 in it, only read
+    private byte[] vram;
+    private int vramStart;
+
+    // Lines of the current frame already drawn and lines whose draw point has passed, the ones in between are pending
+    private int drawnLines;
+    private int linesReady;
+
+    // Cycle the current mode ends at
+    private long modeEnd;
+
+    public PPU(GPURegsManager regsManager, SpriteManager spriteManager, FrameSink frameSink, Tiles tiles, Scheduler scheduler, InterruptController interruptController) {
         this.tiles = tiles;
-        this.addressSpace = addressSpace;
-        this.display = display;
+        this.frameSink = frameSink;
+        this.frame = frameSink.getPixels();
         this.regsManager = regsManager;
         this.spriteManager = spriteManager;
+        this.scheduler = scheduler;
+        this.interruptController = interruptController;
         this.currentMode = Mode.OAM_READ;
         this.lineCounter = 0;
-        this.currentModeClockCounter = 0;
         scanRow = new int[160];
+
+        modeEnd = scheduler.getNow() + currentMode.clocks;
+        scheduler.register(Event.PPU_MODE, this::onInterruptDue);
+        scheduleInterrupt();
+    }
+
+    // Tile maps are read straight from VRAM, not through the MMU
+    public void setVideoRAM(byte[] vram, int start) {
+        this.vram = vram;
+        this.vramStart = start;
+    }
+
+    // Runs every mode transition due by now
+    public void catchUp() {
+        var now = scheduler.getNow();
+        while (modeEnd <= now) {
+            nextMode();
+            // The next mode ends its clocks after the previous one, no time is lost
+            modeEnd += currentMode.clocks;
+        }
+    }
+
+    // Called before a write that changes what's drawn, pending lines are drawn with the state they were due with
+    public void beforeWrite(int address) {
+        catchUp();
+        if (address != GPURegs.STAT.address && address != GPURegs.LYC.address && address != GPURegs.LY.address)
+            flushLines();
+    }
+
+    private void flushLines() {
+        for (int line = drawnLines; line < linesReady; line++)
+            drawLine(line);
+        drawnLines = linesReady;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
     }
 
-    public void step(int clocks) {
-        currentModeClockCounter += clocks;
+    public int getLY() {
+        catchUp();
+        return lineCounter;
+    }
+
+    public int getSTAT() {
+        catchUp();
+        return regsManager.getSTAT();
+    }
+
+    // Cycle LY or the STAT mode changes next
+    public long getNextModeChange() {
+        catchUp();
+        return modeEnd;
+    }
+
+    // Keeps the decoded registers up to date, STAT and LYC decide which transitions request interrupts
+    public void onRegisterWritten(int address, int value) {
+        regsManager.onWrite(address, value);
+        if (address == GPURegs.LCDC.address)
+            spriteManager.setSpriteHeight(regsManager.isDoubleSpritesEnabled() ? 16 : 8);
+        if (address == GPURegs.STAT.address || address == GPURegs.LYC.address)
+            scheduleInterrupt();
+    }
+
+    private void onInterruptDue(long deadline) {
+        catchUp();
+        scheduleInterrupt();
+    }
+
+    // Walks the transitions ahead without running them, entering VBLANK always requests one so this ends within a frame
+    private void scheduleInterrupt() {
+        var stat = regsManager.getSTAT();
+        var lyc = regsManager.getLYC();
+        var mode = currentMode;
+        var line = lineCounter;
+        var end = modeEnd;
+        while (true) {
+            switch (mode) {
+                case OAM_READ:
+                    mode = Mode.VRAM_READ;
+                    break;
+                case VRAM_READ:
+                    mode = Mode.HBLANK;
+                    if ((stat & 0x48) != 0 && ((stat & 0x08) != 0 || line == lyc)) {
+                        scheduler.schedule(Event.PPU_MODE, end);
+                        return;
+                    }
+                    break;
+                case HBLANK:
+                    line++;
+                    if (line == 143) {
+                        scheduler.schedule(Event.PPU_MODE, end);
+                        return;
+                    }
+                    mode = Mode.OAM_READ;
+                    if ((stat & 0x20) != 0) {
+                        scheduler.schedule(Event.PPU_MODE, end);
+                        return;
+                    }
+                    break;
+                case VBLANK:
+                    line++;
+                    if (line > 153) {
+                        mode = Mode.OAM_READ;
+                        line = 0;
+                        if ((stat & 0x20) != 0) {
+                            scheduler.schedule(Event.PPU_MODE, end);
+                            return;
+                        }
+                    }
+                    break;
+            }
+            end += mode.clocks;
+        }
+    }
 
+    private void nextMode() {
         switch (currentMode) {
             case OAM_READ:
-                if (currentModeClockCounter >= Mode.OAM_READ.clocks) {
-                    currentModeClockCounter -= Mode.OAM_READ.clocks;
-                    setCurrentMode(Mode.VRAM_READ);
-                }
+                setCurrentMode(Mode.VRAM_READ);
                 break;
 
             case VRAM_READ:
-                if (currentModeClockCounter >= Mode.VRAM_READ.clocks) {
-                    currentModeClockCounter -= Mode.VRAM_READ.clocks;
-                    setCurrentMode(Mode.HBLANK);
-
-                    //        LY == LYC interrupt
-                    var lineCountersEqual = addressSpace.get(GPURegs.LY.address) == addressSpace.get(GPURegs.LYC.address);
-                    regsManager.updateStatLineCountersEqualFlag(lineCountersEqual);
-                    if (regsManager.statLineCountEqualInterruptEnabled() && lineCountersEqual) {
-                        addressSpace.set(InterruptRegs.IF.getAddress(),
-                                addressSpace.get(InterruptRegs.IF.getAddress()) | InterruptEnum.LCD_STAT.get());
-                    }
+                setCurrentMode(Mode.HBLANK);
 
-                    drawLine();
+                //        LY == LYC interrupt
+                var lineCountersEqual = lineCounter == regsManager.getLYC();
+                regsManager.updateStatLineCountersEqualFlag(lineCountersEqual);
+                if (regsManager.statLineCountEqualInterruptEnabled() && lineCountersEqual) {
+                    interruptController.request(InterruptEnum.LCD_STAT);
                 }
+
+                // Drawn later, together with the lines around it
+                linesReady = lineCounter + 1;
                 break;
 
             case HBLANK:
-                if (currentModeClockCounter >= Mode.HBLANK.clocks) {
-                    currentModeClockCounter -= Mode.HBLANK.clocks;
-                    lineCounter++;
+                lineCounter++;
 
-                    if (lineCounter == 143) {
-                        setCurrentMode(Mode.VBLANK);
+                if (lineCounter == 143) {
+                    flushLines();
+                    drawnLines = linesReady = 0;
+                    setCurrentMode(Mode.VBLANK);
 //                        VBLANK interrupt
-                        addressSpace.set(InterruptRegs.IF.getAddress(),
-                                addressSpace.get(InterruptRegs.IF.getAddress()) | InterruptEnum.VBLANK.get());
-                        display.requestRefresh();
-                    } else {
-                        setCurrentMode(Mode.OAM_READ);
-                    }
+                    interruptController.request(InterruptEnum.VBLANK);
+                    frameSink.frameCompleted();
+                    frame = frameSink.getPixels();
+                    frameCount++;
+                } else {
+                    setCurrentMode(Mode.OAM_READ);
                 }
                 break;
 
             case VBLANK:
-                if (currentModeClockCounter >= Mode.VBLANK.clocks) {
-                    currentModeClockCounter -= Mode.VBLANK.clocks;
-                    lineCounter++;
-
-                    if (lineCounter > 153) {
-                        setCurrentMode(Mode.OAM_READ);
-                        lineCounter = 0;
-                    }
+                lineCounter++;
 
+                if (lineCounter > 153) {
+                    setCurrentMode(Mode.OAM_READ);
+                    lineCounter = 0;
                 }
                 break;
         }
-        addressSpace.set(GPURegs.LY.address, lineCounter);
-
     }
 
     private void setCurrentMode(Mode mode) {
@@ -100,145 +229,123 @@ public class PPU {
         switch (mode) {
             case OAM_READ:
                 if (regsManager.statOAMInterruptSourceEnabled()) {
-                    addressSpace.set(InterruptRegs.IF.getAddress(),
-                            addressSpace.get(InterruptRegs.IF.getAddress()) | InterruptEnum.LCD_STAT.get());
+                    interruptController.request(InterruptEnum.LCD_STAT);
                 }
                 break;
             case HBLANK:
                 if (regsManager.statHBlankInterruptSourceEnabled()) {
-                    addressSpace.set(InterruptRegs.IF.getAddress(),
-                            addressSpace.get(InterruptRegs.IF.getAddress()) | InterruptEnum.LCD_STAT.get());
+                    interruptController.request(InterruptEnum.LCD_STAT);
                 }
                 break;
             case VBLANK:
                 if (regsManager.statVBlankInterruptSourceEnabled()) {
-                    addressSpace.set(InterruptRegs.IF.getAddress(),
-                            addressSpace.get(InterruptRegs.IF.getAddress()) | InterruptEnum.LCD_STAT.get());
+                    interruptController.request(InterruptEnum.LCD_STAT);
                 }
                 break;
         }
     }
 
-    private void drawLine() {
-        var tilemap = tiles.getTileMap();
+    private void drawLine(int line) {
+        var pixels = tiles.getPixels();
 
-        drawBackgroundLine(tilemap, regsManager.getSCY(), regsManager.getSCX(), regsManager.isBackgroundMap(), false);
+        drawBackgroundLine(line, pixels, regsManager.getSCY(), regsManager.getSCX(), regsManager.isBackgroundMap(), false);
 
         if (regsManager.isWindowEnabled()) {
             var windowY = regsManager.getWY();
             var windowX = regsManager.getWX() - 7;
-            if (lineCounter >= windowY) {
-                drawBackgroundLine(tilemap, windowY, windowX, regsManager.useSecondMapForWindow(), true);
+            if (line >= windowY) {
+                drawBackgroundLine(line, pixels, windowY, windowX, regsManager.useSecondMapForWindow(), true);
             }
         }
 
         if (regsManager.isSpritesEnabled()) {
-            drawSpriteLine(tilemap);
+            drawSpriteLine(line, pixels);
         }
     }
 
-    private void drawBackgroundLine(int[][][] tilemap, int initY, int initX, boolean useSecondMap, boolean drawWindow) {
+    private void drawBackgroundLine(int line, byte[] pixels, int initY, int initX, boolean useSecondMap, boolean drawWindow) {
         var bgPalette = regsManager.getBGPalette();
-
-        // Offset for the tile map #0 or #1
-        var mapOffset = useSecondMap ? 0x1C00 : 0x1800;
-
-        // Which line of tiles to use in the map
-        // divided by 8 as that's the height of a tile
-        if (drawWindow) {
-            mapOffset += 32 * (((lineCounter - initY) & 0xFF) >> 3);
-        } else {
-            mapOffset += 32 * (((lineCounter + initY) & 0xFF) >> 3);
-        }
-
-        // Which tile to start with in the tile line
-        var lineOffset = 0;
-        if (!drawWindow) {
-            lineOffset = initX >> 3;
-        }
-
-        // Which line of pixels to use in the destination tile
-        var y = 0;
-        if (drawWindow) {
-            y = (lineCounter - initY) & 7;
-        } else {
-            y = (lineCounter + initY) & 7;
-        }
-
-        // Which pixel to use in the pixel line
-        var x = 0;
-        if (!drawWindow) {
-            x = initX & 7;
+        // Tile data at 0x8800, indices are signed
+        var signedTiles = regsManager.isBackgroundTiles();
+
+        // Line in the 256x256 map, the window counts lines from WY, the background is scrolled by SCY
+        var mapY = (drawWindow ? line - initY : line + initY) & 0xFF;
+        var y = mapY & 7;
+        // Tile map #0 or #1, 32 tiles per row
+        var mapRow = vramStart + (useSecondMap ? 0x1C00 : 0x1800) + 32 * (mapY >> 3);
+
+        // First pixel drawn on the screen and its x in the map
+        var firstX = drawWindow ? Math.max(0, initX) : 0;
+        var mapX = drawWindow ? firstX - initX : initX;
+
+        // The 20-21 tiles the line crosses, resolved up front
+        var firstTile = mapX >> 3;
+        var tileCount = ((mapX & 7) + 160 - firstX + 7) >> 3;
+        for (int i = 0; i < tileCount; i++) {
+            var tileIndex = vram[mapRow + ((firstTile + i) & 31)] & 0xFF;
+            if (signedTiles && tileIndex < 128) tileIndex += 256;
+            lineTiles[i] = tiles.row(tileIndex, y);
         }
 
-        var tileMapAddress = 0x8000 + mapOffset + lineOffset;
-        var tileIndex = addressSpace.get(tileMapAddress);
-        if (regsManager.isBackgroundTiles() && tileIndex < 128) tileIndex += 256;
-
-        for (int i = 0; i < 160; i++) {
-            if (drawWindow && i < initX) {
-                continue;
-            }
-            scanRow[i] = tilemap[tileIndex][y][x];
-            var colour = bgPalette[tilemap[tileIndex][y][x]];
-            display.setPixel(lineCounter, i, colour);
-            x += 1;
+        var frameLine = line * 160;
+        var x = mapX & 7;
+        var tile = 0;
+        for (int i = firstX; i < 160; i++) {
+            var colourNumber = pixels[lineTiles[tile] + x];
+            scanRow[i] = colourNumber;
+            frame[frameLine + i] = bgPalette[colourNumber];
 
-            if (x == 8) {
+            if (++x == 8) {
                 x = 0;
-                lineOffset = (lineOffset + 1) & 31;
-                tileMapAddress = 0x8000 + mapOffset + lineOffset;
-                tileIndex = addressSpace.get(tileMapAddress);
-                if (regsManager.isBackgroundTiles() && tileIndex < 128) tileIndex += 256;
+                tile++;
             }
         }
     }
 
-    private void drawSpriteLine(int[][][] tilemap) {
+    private void drawSpriteLine(int line, byte[] pixels) {
         var sprites = spriteManager.getSprites();
         var doubleSprites = regsManager.isDoubleSpritesEnabled();
-        var spriteHeight = doubleSprites ? 16 : 8;
-
-        for (var sprite : sprites) {
-            // If sprite is in line
-            if (sprite.getYPos() <= lineCounter && sprite.getYPos() + spriteHeight > lineCounter) {
-                int[][] tile;
-                int[] tileRow;
-                var spriteTileIndex = sprite.getTile();
-
-                if (doubleSprites) {
-                    var topTileIndex = spriteTileIndex & 0xFE;
-                    var bottomTileIndex = spriteTileIndex | 0x01;
-
-                    if (lineCounter - sprite.getYPos() <= 7 && !sprite.isYFlip() ||
-                            lineCounter - sprite.getYPos() > 7 && sprite.isYFlip()) {
-                        tile = tilemap[topTileIndex];
-                    } else {
-                        tile = tilemap[bottomTileIndex];
-                    }
+        var count = spriteManager.getSpritesOnLine(line, lineSprites);
 
-                    if (lineCounter - sprite.getYPos() > 7) {
-                        tileRow = sprite.isYFlip()
-                                ? tile[7 - lineCounter + sprite.getYPos() + 8]
-                                : tile[lineCounter - sprite.getYPos() - 8];
-                    } else {
-                        tileRow = sprite.isYFlip()
-                                ? tile[7 - lineCounter + sprite.getYPos()]
-                                : tile[lineCounter - sprite.getYPos()];
-                    }
+        for (int i = 0; i < count; i++) {
+            var sprite = sprites[lineSprites[i]];
+            int tile;
+            int tileRow;
+            var spriteTileIndex = sprite.getTile();
+
+            if (doubleSprites) {
+                var topTileIndex = spriteTileIndex & 0xFE;
+                var bottomTileIndex = spriteTileIndex | 0x01;
+
+                if (line - sprite.getYPos() <= 7 && !sprite.isYFlip() ||
+                        line - sprite.getYPos() > 7 && sprite.isYFlip()) {
+                    tile = topTileIndex;
                 } else {
-                    tile = tilemap[spriteTileIndex];
-                    tileRow = sprite.isYFlip()
-                            ? tile[7 - lineCounter + sprite.getYPos()]
-                            : tile[lineCounter - sprite.getYPos()];
+                    tile = bottomTileIndex;
                 }
 
-                drawTileRow(sprite, tileRow);
+                if (line - sprite.getYPos() > 7) {
+                    tileRow = sprite.isYFlip()
+                            ? tiles.row(tile, 7 - line + sprite.getYPos() + 8)
+                            : tiles.row(tile, line - sprite.getYPos() - 8);
+                } else {
+                    tileRow = sprite.isYFlip()
+                            ? tiles.row(tile, 7 - line + sprite.getYPos())
+                            : tiles.row(tile, line - sprite.getYPos());
+                }
+            } else {
+                tile = spriteTileIndex;
+                tileRow = sprite.isYFlip()
+                        ? tiles.row(tile, 7 - line + sprite.getYPos())
+                        : tiles.row(tile, line - sprite.getYPos());
             }
+
+            drawTileRow(line, pixels, sprite, tileRow);
         }
     }
 
-    private void drawTileRow(Sprite sprite, int[] tileRow) {
+    // tileRow is the offset of the sprite's row in pixels
+    private void drawTileRow(int line, byte[] pixels, Sprite sprite, int tileRow) {
         var palette = sprite.isSecondPalette()
                 ? regsManager.getSecondObjPalette()
                 : regsManager.getFirstObjPalette();
@@ -247,10 +354,10 @@ public class PPU {
             var destCol = sprite.getXPos() + tileCol;
             if (destCol >= 0
                     && destCol < 160
-                    && (tileRow[tileCol] > 0 && !sprite.isXFlip() || tileRow[7 - tileCol] > 0 && sprite.isXFlip())
+                    && (pixels[tileRow + tileCol] > 0 && !sprite.isXFlip() || pixels[tileRow + 7 - tileCol] > 0 && sprite.isXFlip())
                     && (!sprite.isAboveBgPriority() || scanRow[destCol] == 0)) {
-                var colour = palette[tileRow[sprite.isXFlip() ? 7 - tileCol : tileCol]];
-                display.setPixel(lineCounter, destCol, colour);
+                var colour = palette[pixels[tileRow + (sprite.isXFlip() ? 7 - tileCol : tileCol)]];
+                frame[line * 160 + destCol] = colour;
             }
         }
     }
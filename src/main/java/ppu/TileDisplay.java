@@ -1,6 +1,6 @@
 package ppu;
 
-public class TileDisplay extends Display implements Runnable, UtilDisplay {
+public class TileDisplay extends Display implements UtilDisplay {
 
     public static final int DISPLAY_WIDTH = 128;
 
@@ -16,11 +16,13 @@ public class TileDisplay extends Display implements Runnable, UtilDisplay {
     }
 
     @Override
-    public void drawTile(int baseX, int baseY, int[][] tile) {
+    public void drawTile(int baseX, int baseY, int tile) {
         var bgPalette = regsManager.getBGPalette();
-        for (int i = 0; i < 8 * scale; i++) {
-            for (int j = 0; j < 8 * scale; j++) {
-                rgb[baseY + i][baseX + j] = bgPalette[tile[i / scale][j / scale]];
+        var tilePixels = tiles.getPixels();
+        for (int i = 0; i < 8; i++) {
+            var row = tiles.row(tile, i);
+            for (int j = 0; j < 8; j++) {
+                pixels[(baseY + i) * DISPLAY_WIDTH + baseX + j] = bgPalette[tilePixels[row + j]];
             }
         }
     }
@@ -30,7 +32,7 @@ public class TileDisplay extends Display implements Runnable, UtilDisplay {
         var x = 0;
         var y = 0;
         for (int i = 0; i < 384; i++) {
-            drawTile(x * 8 * scale, y * 8 * scale, tiles.getTileMap()[i]);
+            drawTile(x * 8, y * 8, i);
             x += 1;
             if (x >= 16) {
                 x = 0;
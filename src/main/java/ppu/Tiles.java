@@ -1,46 +1,74 @@
 package ppu;
 
-import memory.AddressSpace;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 
+/*
+ * Decoded tile data, one byte per pixel holding its colour number 0-3, in one flat array.
+ * Pixel x of row y of a tile is at offset(tile, y) + x.
+ *
+ * A row is two bytes in VRAM, bit 7-x of the low byte is bit 0 of pixel x and the high byte gives bit 1.
+ * SPREAD moves each bit of a byte into its own byte of a long, leftmost pixel first, so a whole row decodes
+ * to SPREAD[low] | SPREAD[high] << 1 and is stored with a single 8 byte write.
+ *
+ * VRAM writes only mark their row dirty, a row is decoded when it's read next, so uploads that write a tile
+ * several times per frame, or don't get drawn at all, are not decoded for every byte.
+ * Pixels must only be read at offsets returned by row().
+ * */
 public class Tiles {
 
-    private AddressSpace addressSpace;
+    public static final int TILE_COUNT = 384;
+    public static final int TILE_SIZE = 64;
 
-    private final int[][][] tileMap = new int[384][8][8];
+    private static final long[] SPREAD = new long[256];
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
 
-    public Tiles(AddressSpace addressSpace) {
-        this.addressSpace = addressSpace;
+    static {
+        for (int value = 0; value < 256; value++) {
+            long row = 0;
+            for (int x = 0; x < 8; x++)
+                row |= (long) ((value >> (7 - x)) & 1) << ((7 - x) * 8);
+            SPREAD[value] = row;
+        }
     }
 
-    public Tiles() {
-    }
+    private final byte[] pixels = new byte[TILE_COUNT * TILE_SIZE];
+    // One bit per tile row, set when VRAM under the row changed since it was decoded
+    private final long[] dirtyRows = new long[TILE_COUNT * 8 / 64];
 
-    public void setAddressSpace(AddressSpace addressSpace) {
-        this.addressSpace = addressSpace;
-    }
+    // VRAM backing array and the index of 0x8000 in it
+    private byte[] vram;
+    private int vramStart;
 
-    public int[][][] getTileMap() {
-        return tileMap;
+    public void setVideoRAM(byte[] vram, int start) {
+        this.vram = vram;
+        this.vramStart = start;
     }
 
-    public void updateTile(int address) {
-        // Get even address for tile row
-        address &= 0xFFFE;
-
-        // Each tile takes up 16 bytes - 0x10 elements
-        // So we can easily get index of each tile
-        var tile = (address >> 4) & 0x1FF;
+    public byte[] getPixels() {
+        return pixels;
+    }
 
-        // We can also get y index in the tile
-        var y = (address >> 1) & 0x7;
+    // Offset of row y of a tile in pixels, decoded first if it's dirty
+    public int row(int tile, int y) {
+        var row = tile * 8 + y;
+        if ((dirtyRows[row >> 6] & (1L << row)) != 0)
+            decodeRow(row);
+        return row * 8;
+    }
 
-        // Update single row of the tile in tilemap
-        for (int x = 0; x < 8; x++) {
-            var mask = 1 << (7 - x);
-            tileMap[tile][y][x] =
-                    ((addressSpace.get(address) & mask) > 0 ? 1 : 0) + ((addressSpace.get(address + 1) & mask) > 0 ? 2 : 0);
+    // Called for writes to 0x8000-0x97FF, each tile takes up 16 bytes, two per row
+    public void markDirty(int address) {
+        var row = (address & 0x1FFF) >> 1;
+        dirtyRows[row >> 6] |= 1L << row;
+    }
 
-        }
+    private void decodeRow(int row) {
+        var index = row * 2 + vramStart;
+        var pixelRow = SPREAD[vram[index] & 0xFF] | SPREAD[vram[index + 1] & 0xFF] << 1;
+        LONG.set(pixels, row * 8, pixelRow);
+        dirtyRows[row >> 6] &= ~(1L << row);
     }
 
 }
@@ -2,7 +2,7 @@ package ppu;
 
 public interface UtilDisplay {
 
-    void drawTile(int baseX, int baseY, int[][] tile);
+    void drawTile(int baseX, int baseY, int tile);
 
     void updateMap();
 }
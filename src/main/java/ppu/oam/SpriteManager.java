@@ -1,25 +1,76 @@
 package ppu.oam;
 
+import java.util.Arrays;
 
+/*
+ * Besides the decoded sprites this keeps a per line index of the OAM entries overlapping each of the 154 lines,
+ * a 40 bit mask per line. It's updated incrementally when a sprite's Y changes, and rebuilt in one pass when
+ * the sprite height changes or OAM is loaded by DMA. Lookups return at most 10 sprites per line in OAM order,
+ * like the hardware.
+ * */
 public class SpriteManager {
 
-    private final Sprite[] sprites = new Sprite[40];
+    public static final int MAX_SPRITES_PER_LINE = 10;
+
+    private static final int SPRITE_COUNT = 40;
+    private static final int LINES = 154;
+
+    private final Sprite[] sprites = new Sprite[SPRITE_COUNT];
+    private final long[] lineMasks = new long[LINES];
+    private int spriteHeight = 8;
 
     public SpriteManager() {
-        for (int i = 0; i < 40; i++)
+        for (int i = 0; i < SPRITE_COUNT; i++)
             sprites[i] = new Sprite();
+        rebuildIndex();
     }
 
     public Sprite[] getSprites() {
         return sprites;
     }
 
+    // Fills indices with the sprites on the line in OAM order, returns how many there are
+    public int getSpritesOnLine(int line, int[] indices) {
+        var mask = lineMasks[line];
+        var count = 0;
+        while (mask != 0 && count < MAX_SPRITES_PER_LINE) {
+            indices[count++] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return count;
+    }
+
+    // 8 or 16, from LCDC
+    public void setSpriteHeight(int height) {
+        if (height == spriteHeight)
+            return;
+        spriteHeight = height;
+        rebuildIndex();
+    }
+
     public void updateSprite(int address, int value) {
         var index = (address & 0x00FF) >> 2;
-        if (index >= 40)
+        if (index >= SPRITE_COUNT)
             throw new IllegalStateException("Sprite index exceeded!");
 
-        switch (address & 0x3) {
+        if ((address & 0x3) == 0) {
+            indexSprite(index, false);
+            setAttribute(index, 0, value);
+            indexSprite(index, true);
+        } else {
+            setAttribute(index, address & 0x3, value);
+        }
+    }
+
+    // Whole OAM at once, e.g. after a DMA, start is the index of 0xFE00 in oam
+    public void load(byte[] oam, int start) {
+        for (int i = 0; i < SPRITE_COUNT * 4; i++)
+            setAttribute(i >> 2, i & 0x3, oam[start + i] & 0xFF);
+        rebuildIndex();
+    }
+
+    private void setAttribute(int index, int attribute, int value) {
+        switch (attribute) {
             case 0:
                 sprites[index].setYPos(value - 16);
                 break;
@@ -39,4 +90,21 @@ public class SpriteManager {
                 throw new IllegalStateException("Sprite index exceeded!");
         }
     }
+
+    private void rebuildIndex() {
+        Arrays.fill(lineMasks, 0);
+        for (int i = 0; i < SPRITE_COUNT; i++)
+            indexSprite(i, true);
+    }
+
+    private void indexSprite(int index, boolean add) {
+        var y = sprites[index].getYPos();
+        var bit = 1L << index;
+        for (int line = Math.max(0, y); line < Math.min(LINES, y + spriteHeight); line++) {
+            if (add)
+                lineMasks[line] |= bit;
+            else
+                lineMasks[line] &= ~bit;
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package ppu.sink;
+
+import ppu.FrameSink;
+
+/*
+ * Hashes every completed frame with 64 bit FNV-1a over its pixels, e.g. to compare runs without keeping images.
+ * */
+public class FrameHashSink implements FrameSink {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final int[] pixels = new int[WIDTH * HEIGHT];
+    private long lastHash;
+    private long frameCount;
+
+    @Override
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    @Override
+    public void frameCompleted() {
+        lastHash = hash(pixels);
+        frameCount++;
+    }
+
+    public static long hash(int[] pixels) {
+        var hash = FNV_OFFSET;
+        for (var pixel : pixels) {
+            hash = (hash ^ (pixel & 0xFFFFFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public long getLastHash() {
+        return lastHash;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+}
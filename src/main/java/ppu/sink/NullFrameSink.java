@@ -0,0 +1,18 @@
+package ppu.sink;
+
+import ppu.FrameSink;
+
+// Drops every frame, for runs that only care about the emulation
+public class NullFrameSink implements FrameSink {
+
+    private final int[] pixels = new int[WIDTH * HEIGHT];
+
+    @Override
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    @Override
+    public void frameCompleted() {
+    }
+}
@@ -0,0 +1,40 @@
+package ppu.sink;
+
+import ppu.FrameSink;
+
+/*
+ * Keeps the last frames in a ring of buffers. Each frame is drawn straight into its slot, completing it moves
+ * on to the next slot, so nothing is copied. Not thread safe, frames are meant to be read by the emulation thread.
+ * */
+public class RingBufferFrameSink implements FrameSink {
+
+    private final int[][] frames;
+    private long frameCount;
+
+    public RingBufferFrameSink(int capacity) {
+        if (capacity < 2)
+            throw new IllegalStateException(String.format("Ring needs at least 2 frames, got %d", capacity));
+        frames = new int[capacity][WIDTH * HEIGHT];
+    }
+
+    @Override
+    public int[] getPixels() {
+        return frames[(int) (frameCount % frames.length)];
+    }
+
+    @Override
+    public void frameCompleted() {
+        frameCount++;
+    }
+
+    // age 0 is the latest completed frame, up to capacity - 2 as the oldest slot is being drawn into
+    public int[] getFrame(int age) {
+        if (age >= frameCount || age > frames.length - 2)
+            throw new IllegalStateException(String.format("No frame %d frames back, %d completed", age, frameCount));
+        return frames[(int) ((frameCount - 1 - age) % frames.length)];
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+}
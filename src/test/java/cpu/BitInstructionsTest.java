@@ -25,9 +25,9 @@ public class BitInstructionsTest {
         registers.setPC(0x2000);
         registers.setA(0x45);
 
-        var instr = executeInstruction(0x57, true, registers, addressSpace);
+        var cycles = executeInstruction(0x57, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x45, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -43,9 +43,9 @@ public class BitInstructionsTest {
         registers.setHL(0x1234);
         addressSpace.set(0x1234, 0xF1);
 
-        var instr = executeInstruction(0x5E, true, registers, addressSpace);
+        var cycles = executeInstruction(0x5E, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
         assertFalse(flags.isNFlag());
@@ -58,9 +58,9 @@ public class BitInstructionsTest {
         registers.setPC(0x2000);
         registers.setE(0x00);
 
-        var instr = executeInstruction(0xD3, true, registers, addressSpace);
+        var cycles = executeInstruction(0xD3, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x04, registers.getE());
         assertEquals(0x2000, registers.getPC());
     }
@@ -71,9 +71,9 @@ public class BitInstructionsTest {
         registers.setHL(0x1234);
         addressSpace.set(0x1234, 0xF1);
 
-        var instr = executeInstruction(0xDE, true, registers, addressSpace);
+        var cycles = executeInstruction(0xDE, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x2000, registers.getPC());
         assertEquals(0xF9, addressSpace.get(0x1234));
     }
@@ -83,9 +83,9 @@ public class BitInstructionsTest {
         registers.setPC(0x2000);
         registers.setD(0xFF);
 
-        var instr = executeInstruction(0xBA, true, registers, addressSpace);
+        var cycles = executeInstruction(0xBA, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x7F, registers.getD());
         assertEquals(0x2000, registers.getPC());
     }
@@ -96,9 +96,9 @@ public class BitInstructionsTest {
         registers.setHL(0x1234);
         addressSpace.set(0x1234, 0xF1);
 
-        var instr = executeInstruction(0x86, true, registers, addressSpace);
+        var cycles = executeInstruction(0x86, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x2000, registers.getPC());
         assertEquals(0xF0, addressSpace.get(0x1234));
     }
@@ -25,10 +25,10 @@ class ByteAluInstructionsTest {
         registers.setA(0x15);
         registers.setC(0x05);
 
-        var instr = executeInstruction(0x81, false, registers, addressSpace);
+        var cycles = executeInstruction(0x81, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x1A, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -43,10 +43,10 @@ class ByteAluInstructionsTest {
         registers.setA(0x1E);
         registers.setH(0x02);
 
-        var instr = executeInstruction(0x84, false, registers, addressSpace);
+        var cycles = executeInstruction(0x84, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x20, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -61,10 +61,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xFE);
         registers.setL(0x02);
 
-        var instr = executeInstruction(0x85, false, registers, addressSpace);
+        var cycles = executeInstruction(0x85, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x00, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
@@ -80,10 +80,10 @@ class ByteAluInstructionsTest {
         registers.setHL(0x10FF);
         addressSpace.set(0x10FF, 0x05);
 
-        var instr = executeInstruction(0x86, false, registers, addressSpace);
+        var cycles = executeInstruction(0x86, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x06, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -99,10 +99,10 @@ class ByteAluInstructionsTest {
         registers.setHL(0x10FF);
         addressSpace.set(0x10FF, 0x0F);
 
-        var instr = executeInstruction(0x86, false, registers, addressSpace);
+        var cycles = executeInstruction(0x86, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x00, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
@@ -117,10 +117,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xAA);
         addressSpace.set(0x2000, 0x12);
 
-        var instr = executeInstruction(0xC6, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC6, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xBC, registers.getA());
         assertEquals(0x2001, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -135,10 +135,10 @@ class ByteAluInstructionsTest {
         registers.setA(0x1A);
         addressSpace.set(0x2000, 0xF0);
 
-        var instr = executeInstruction(0xC6, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC6, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x0A, registers.getA());
         assertEquals(0x2001, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -154,10 +154,10 @@ class ByteAluInstructionsTest {
         registers.setC(0x05);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0x89, false, registers, addressSpace);
+        var cycles = executeInstruction(0x89, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x1B, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -173,10 +173,10 @@ class ByteAluInstructionsTest {
         registers.setH(0x02);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0x8C, false, registers, addressSpace);
+        var cycles = executeInstruction(0x8C, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x21, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -192,10 +192,10 @@ class ByteAluInstructionsTest {
         registers.setL(0x02);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0x8D, false, registers, addressSpace);
+        var cycles = executeInstruction(0x8D, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x01, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -212,10 +212,10 @@ class ByteAluInstructionsTest {
         addressSpace.set(0x10FF, 0x05);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0x8E, false, registers, addressSpace);
+        var cycles = executeInstruction(0x8E, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x07, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -232,10 +232,10 @@ class ByteAluInstructionsTest {
         addressSpace.set(0x10FF, 0x0F);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0x8E, false, registers, addressSpace);
+        var cycles = executeInstruction(0x8E, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x01, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -252,10 +252,10 @@ class ByteAluInstructionsTest {
         addressSpace.set(0x2001, 0x05);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0xCE, false, registers, addressSpace);
+        var cycles = executeInstruction(0xCE, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x07, registers.getA());
         assertEquals(0x2002, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -271,10 +271,10 @@ class ByteAluInstructionsTest {
         addressSpace.set(0x2000, 0x0F);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0xCE, false, registers, addressSpace);
+        var cycles = executeInstruction(0xCE, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x01, registers.getA());
         assertEquals(0x2001, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -289,10 +289,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xF1);
         registers.setB(0x10);
 
-        var instr = executeInstruction(0x90, false, registers, addressSpace);
+        var cycles = executeInstruction(0x90, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xE1, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -307,10 +307,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xF1);
         registers.setB(0x02);
 
-        var instr = executeInstruction(0x90, false, registers, addressSpace);
+        var cycles = executeInstruction(0x90, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xEF, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -325,10 +325,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xF1);
         registers.setB(0xF2);
 
-        var instr = executeInstruction(0x90, false, registers, addressSpace);
+        var cycles = executeInstruction(0x90, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xFF, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -343,10 +343,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xF1);
         registers.setB(0xF1);
 
-        var instr = executeInstruction(0x90, false, registers, addressSpace);
+        var cycles = executeInstruction(0x90, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x00, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
@@ -362,10 +362,10 @@ class ByteAluInstructionsTest {
         registers.setHL(0x12FF);
         addressSpace.set(0x12FF, 0x01);
 
-        var instr = executeInstruction(0x96, false, registers, addressSpace);
+        var cycles = executeInstruction(0x96, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xF0, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -380,10 +380,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xF1);
         addressSpace.set(0x2000, 0x1F);
 
-        var instr = executeInstruction(0xD6, false, registers, addressSpace);
+        var cycles = executeInstruction(0xD6, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xD2, registers.getA());
         assertEquals(0x2001, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -399,10 +399,10 @@ class ByteAluInstructionsTest {
         registers.setB(0x10);
         registers.getFlags().setCFlag(false);
 
-        var instr = executeInstruction(0x98, false, registers, addressSpace);
+        var cycles = executeInstruction(0x98, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xE1, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -418,10 +418,10 @@ class ByteAluInstructionsTest {
         registers.setB(0x10);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0x98, false, registers, addressSpace);
+        var cycles = executeInstruction(0x98, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xE0, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -437,10 +437,10 @@ class ByteAluInstructionsTest {
         registers.setC(0x03);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0x99, false, registers, addressSpace);
+        var cycles = executeInstruction(0x99, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xED, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -456,10 +456,10 @@ class ByteAluInstructionsTest {
         registers.getFlags().setCFlag(false);
         addressSpace.set(0x2000, 0x11);
 
-        var instr = executeInstruction(0xDE, false, registers, addressSpace);
+        var cycles = executeInstruction(0xDE, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xE0, registers.getA());
         assertEquals(0x2001, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -474,10 +474,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xF1);
         addressSpace.set(0x2000, 0xC2);
 
-        var instr = executeInstruction(0xE6, false, registers, addressSpace);
+        var cycles = executeInstruction(0xE6, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xC0, registers.getA());
         assertEquals(0x2001, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -492,10 +492,10 @@ class ByteAluInstructionsTest {
         registers.setA(0x81);
         registers.setD(0x44);
 
-        var instr = executeInstruction(0xB2, false, registers, addressSpace);
+        var cycles = executeInstruction(0xB2, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xC5, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -510,10 +510,10 @@ class ByteAluInstructionsTest {
         registers.setA(0x00);
         registers.setD(0x00);
 
-        var instr = executeInstruction(0xB0, false, registers, addressSpace);
+        var cycles = executeInstruction(0xB0, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x00, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
@@ -528,10 +528,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xFF);
         registers.setB(0xEA);
 
-        var instr = executeInstruction(0xA8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xA8, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x15, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -546,10 +546,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xFF);
         registers.setC(0xEA);
 
-        var instr = executeInstruction(0xB9, false, registers, addressSpace);
+        var cycles = executeInstruction(0xB9, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xFF, registers.getA());
         assertEquals(0xEA, registers.getC());
         assertEquals(0x2000, registers.getPC());
@@ -565,10 +565,10 @@ class ByteAluInstructionsTest {
         registers.setA(0xEA);
         registers.setC(0xFF);
 
-        var instr = executeInstruction(0xB9, false, registers, addressSpace);
+        var cycles = executeInstruction(0xB9, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xEA, registers.getA());
         assertEquals(0xFF, registers.getC());
         assertEquals(0x2000, registers.getPC());
@@ -583,10 +583,10 @@ class ByteAluInstructionsTest {
         registers.setPC(0x2000);
         registers.setA(0xFF);
 
-        var instr = executeInstruction(0x3C, false, registers, addressSpace);
+        var cycles = executeInstruction(0x3C, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x00, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
@@ -600,10 +600,10 @@ class ByteAluInstructionsTest {
         registers.setHL(0x1234);
         addressSpace.set(0x1234, 0xFF);
 
-        var instr = executeInstruction(0x34, false, registers, addressSpace);
+        var cycles = executeInstruction(0x34, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x00, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
@@ -616,10 +616,10 @@ class ByteAluInstructionsTest {
         registers.setPC(0x2000);
         registers.setE(0x10);
 
-        var instr = executeInstruction(0x1D, false, registers, addressSpace);
+        var cycles = executeInstruction(0x1D, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x0F, registers.getE());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
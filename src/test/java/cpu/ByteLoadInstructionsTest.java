@@ -24,9 +24,9 @@ class ByteLoadInstructionsTest {
         registers.setPC(0x2002);
         addressSpace.set(0x2002, 0x99);
 
-        var instr = executeInstruction(0x0E, false, registers, addressSpace);
+        var cycles = executeInstruction(0x0E, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x99, registers.getC());
         assertEquals(0x2003, registers.getPC());
     }
@@ -36,9 +36,9 @@ class ByteLoadInstructionsTest {
         registers.setPC(0x2001);
         addressSpace.set(0x2001, 0x99);
 
-        var instr = executeInstruction(0x06, false, registers, addressSpace);
+        var cycles = executeInstruction(0x06, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x99, registers.getB());
         assertEquals(0x2002, registers.getPC());
     }
@@ -48,9 +48,9 @@ class ByteLoadInstructionsTest {
         registers.setPC(0x2001);
         registers.setD(0xF1);
 
-        var instr = executeInstruction(0x7A, false, registers, addressSpace);
+        var cycles = executeInstruction(0x7A, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xF1, registers.getA());
         assertEquals(0x2001, registers.getPC());
     }
@@ -61,9 +61,9 @@ class ByteLoadInstructionsTest {
         registers.setBC(0x2222);
         addressSpace.set(0x2222, 0x15);
 
-        var instr = executeInstruction(0x0A, false, registers, addressSpace);
+        var cycles = executeInstruction(0x0A, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x15, registers.getA());
         assertEquals(0x2001, registers.getPC());
     }
@@ -75,10 +75,10 @@ class ByteLoadInstructionsTest {
         addressSpace.set(0x2002, 0x2A);
         addressSpace.set(0x2A15, 0xFF);
 
-        var instr = executeInstruction(0xFA, false, registers, addressSpace);
+        var cycles = executeInstruction(0xFA, false, registers, addressSpace);
 
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0xFF, registers.getA());
         assertEquals(0x2003, registers.getPC());
     }
@@ -88,9 +88,9 @@ class ByteLoadInstructionsTest {
         registers.setPC(0x2000);
         registers.setA(0xFA);
 
-        var instr = executeInstruction(0x47, false, registers, addressSpace);
+        var cycles = executeInstruction(0x47, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xFA, registers.getB());
         assertEquals(0x2000, registers.getPC());
     }
@@ -101,10 +101,10 @@ class ByteLoadInstructionsTest {
         registers.setA(0xFA);
         registers.setBC(0x4001);
 
-        var instr = executeInstruction(0x02, false, registers, addressSpace);
+        var cycles = executeInstruction(0x02, false, registers, addressSpace);
 
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xFA, addressSpace.get(0x4001));
         assertEquals(0x2000, registers.getPC());
     }
@@ -116,10 +116,10 @@ class ByteLoadInstructionsTest {
         addressSpace.set(0xC001, 0x15);
         addressSpace.set(0xC002, 0xC1);
 
-        var instr = executeInstruction(0xEA, false, registers, addressSpace);
+        var cycles = executeInstruction(0xEA, false, registers, addressSpace);
 
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0xFA, addressSpace.get(0xC115));
         assertEquals(0xC003, registers.getPC());
     }
@@ -130,10 +130,10 @@ class ByteLoadInstructionsTest {
         registers.setC(0x15);
         addressSpace.set(0xFF15, 0x88);
 
-        var instr = executeInstruction(0xF2, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF2, false, registers, addressSpace);
 
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x88, registers.getA());
         assertEquals(0x2000, registers.getPC());
     }
@@ -145,10 +145,10 @@ class ByteLoadInstructionsTest {
         registers.setC(0x15);
         addressSpace.set(0xFF15, 0x88);
 
-        var instr = executeInstruction(0xE2, false, registers, addressSpace);
+        var cycles = executeInstruction(0xE2, false, registers, addressSpace);
 
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xFE, addressSpace.get(0xFF15));
         assertEquals(0x2000, registers.getPC());
     }
@@ -160,10 +160,10 @@ class ByteLoadInstructionsTest {
         registers.setHL(0xC123);
         addressSpace.set(0xC123, 0x88);
 
-        var instr = executeInstruction(0x3A, false, registers, addressSpace);
+        var cycles = executeInstruction(0x3A, false, registers, addressSpace);
 
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x88, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertEquals(0xC122, registers.getHL());
@@ -175,10 +175,10 @@ class ByteLoadInstructionsTest {
         registers.setA(0xFE);
         registers.setHL(0xC123);
 
-        var instr = executeInstruction(0x32, false, registers, addressSpace);
+        var cycles = executeInstruction(0x32, false, registers, addressSpace);
 
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xFE, addressSpace.get(0xC123));
         assertEquals(0x2000, registers.getPC());
         assertEquals(0xC122, registers.getHL());
@@ -191,10 +191,10 @@ class ByteLoadInstructionsTest {
         registers.setHL(0xC123);
         addressSpace.set(0xC123, 0x88);
 
-        var instr = executeInstruction(0x2A, false, registers, addressSpace);
+        var cycles = executeInstruction(0x2A, false, registers, addressSpace);
 
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x88, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertEquals(0xC124, registers.getHL());
@@ -206,10 +206,10 @@ class ByteLoadInstructionsTest {
         registers.setA(0xFE);
         registers.setHL(0xC123);
 
-        var instr = executeInstruction(0x22, false, registers, addressSpace);
+        var cycles = executeInstruction(0x22, false, registers, addressSpace);
 
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xFE, addressSpace.get(0xC123));
         assertEquals(0x2000, registers.getPC());
         assertEquals(0xC124, registers.getHL());
@@ -221,10 +221,10 @@ class ByteLoadInstructionsTest {
         registers.setA(0x1C);
         addressSpace.set(0x2000, 0x12);
 
-        var instr = executeInstruction(0xE0, false, registers, addressSpace);
+        var cycles = executeInstruction(0xE0, false, registers, addressSpace);
 
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x1C, addressSpace.get(0xFF12));
         assertEquals(0x2001, registers.getPC());
     }
@@ -236,9 +236,9 @@ class ByteLoadInstructionsTest {
         addressSpace.set(0x2000, 0x12);
         addressSpace.set(0xFF12, 0x9A);
 
-        var instr = executeInstruction(0xF0, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF0, false, registers, addressSpace);
         
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x9A, registers.getA());
         assertEquals(0x2001, registers.getPC());
     }
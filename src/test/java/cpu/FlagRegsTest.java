@@ -30,4 +30,64 @@ class FlagRegsTest {
         assertTrue(f.isZFlag());
     }
 
+    @Test
+    void lazyAdd_matchesEagerFlags() {
+        f = new FlagsReg();
+        for (int a = 0; a <= 0xFF; a++) {
+            for (int b = 0; b <= 0xFF; b++) {
+                for (int carry = 0; carry <= 1; carry++) {
+                    f.setAdd(a, b, carry);
+
+                    var result = a + b + carry;
+                    var expected = flags((result & 0xFF) == 0, false, ((a & 0xF) + (b & 0xF) + carry) > 0xF, result > 0xFF);
+                    assertEquals(expected, f.getByte());
+                }
+            }
+        }
+    }
+
+    @Test
+    void lazySub_matchesEagerFlags() {
+        f = new FlagsReg();
+        for (int a = 0; a <= 0xFF; a++) {
+            for (int b = 0; b <= 0xFF; b++) {
+                for (int carry = 0; carry <= 1; carry++) {
+                    f.setSub(a, b, carry);
+
+                    var result = a - b - carry;
+                    var expected = flags((result & 0xFF) == 0, true, ((a ^ b ^ (result & 0xFF)) & 0x10) != 0, result < 0);
+                    assertEquals(expected, f.getByte());
+                }
+            }
+        }
+    }
+
+    @Test
+    void lazyIncDec_keepCarry() {
+        f = new FlagsReg();
+        f.setSub(0x00, 0x01, 0);
+        f.setInc(0x0F);
+
+        assertFalse(f.isZFlag());
+        assertFalse(f.isNFlag());
+        assertTrue(f.isHFlag());
+        assertTrue(f.isCFlag());
+
+        f.setDec(0x01);
+
+        assertEquals(0xD0, f.getByte());
+    }
+
+    @Test
+    void setFlag_materializesPendingOp() {
+        f = new FlagsReg();
+        f.setAdd(0xFF, 0x01, 0);
+        f.setCFlag(false);
+
+        assertEquals(0xA0, f.getByte());
+    }
+
+    private static int flags(boolean z, boolean n, boolean h, boolean c) {
+        return (z ? 0x80 : 0) | (n ? 0x40 : 0) | (h ? 0x20 : 0) | (c ? 0x10 : 0);
+    }
 }
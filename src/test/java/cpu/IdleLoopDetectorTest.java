@@ -0,0 +1,78 @@
+package cpu;
+
+import cpu.scheduler.Event;
+import cpu.scheduler.Scheduler;
+import memory.MMU;
+import memory.MMUFixture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ppu.GPURegsManager;
+import ppu.PPU;
+import ppu.Tiles;
+import ppu.oam.SpriteManager;
+import ppu.sink.NullFrameSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdleLoopDetectorTest {
+
+    private static final int START = 0x0150;
+    // LDH A,(n), CP 0x90, JR NZ,-6 takes 3 + 2 + 3 cycles
+    private static final int ITERATION = 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testOnBackwardJump_skipsToNextEventAfterUndisturbedIteration() throws IOException {
+        var scheduler = new Scheduler();
+        scheduler.register(Event.SERIAL, deadline -> {});
+        scheduler.schedule(Event.SERIAL, 1000);
+        // Polls LY
+        var detector = new IdleLoopDetector(new Registers(), createMMU(0x44), scheduler, null);
+
+        scheduler.advance(ITERATION);
+        assertEquals(0, detector.onBackwardJump(START));
+        scheduler.advance(ITERATION);
+        assertEquals((1000 - 2 * ITERATION) / ITERATION * ITERATION, detector.onBackwardJump(START));
+    }
+
+    @Test
+    void testOnBackwardJump_stopsAtPpuModeChangeBeforeNextEvent() throws IOException {
+        var scheduler = new Scheduler();
+        var mmu = createMMU(0x44);
+        var ppu = new PPU(new GPURegsManager(), new SpriteManager(), new NullFrameSink(), new Tiles(), scheduler, mmu.getInterruptController());
+        mmu.setPPU(ppu);
+        var detector = new IdleLoopDetector(new Registers(), mmu, scheduler, ppu);
+
+        // Into VRAM mode of line 0, it ends at cycle 63 while the first event is VBLANK
+        scheduler.advance(21);
+        scheduler.advance(ITERATION);
+        assertEquals(0, detector.onBackwardJump(START));
+        scheduler.advance(ITERATION);
+        assertEquals(63, ppu.getNextModeChange());
+        assertTrue(ppu.getNextModeChange() < scheduler.getNextDeadline());
+
+        assertEquals((63 - 37) / ITERATION * ITERATION, detector.onBackwardJump(START));
+    }
+
+    @Test
+    void testOnBackwardJump_neverSkipsLoopReadingDiv() throws IOException {
+        var scheduler = new Scheduler();
+        scheduler.register(Event.SERIAL, deadline -> {});
+        scheduler.schedule(Event.SERIAL, 1000);
+        var detector = new IdleLoopDetector(new Registers(), createMMU(0x04), scheduler, null);
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.advance(ITERATION);
+            assertEquals(0, detector.onBackwardJump(START));
+        }
+    }
+
+    private MMU createMMU(int register) throws IOException {
+        return MMUFixture.createMMU(dir, MMUFixture.romWith(START, 0xF0, register, 0xFE, 0x90, 0x20, 0xFA));
+    }
+}
@@ -0,0 +1,119 @@
+package cpu;
+
+import cpu.instruction.Instruction;
+import cpu.instruction.Instructions;
+import cpu.instruction.appender.*;
+import cpu.interrupt.InterruptController;
+import cpu.interrupt.InterruptManager;
+import memory.BasicMemory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * Compares the dense opcode tables and fused executors with the old dispatch path: a HashMap lookup,
+ * a new Context per instruction, a walk over the operation list threading the accumulator and a separate
+ * cycle count lookup.
+ * Score is in instructions per microsecond, which is the same as MIPS.
+ *
+ * Run with:
+ * mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main InstructionDispatchBenchmark"
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstructionDispatchBenchmark {
+
+    private static final int INSTRUCTIONS_PER_INVOCATION = 1000;
+    private static final int PROGRAM_START = 0x0100;
+
+    /*
+     * loop:
+     *   LD A, (HL)
+     *   ADD A, B
+     *   LD (HL), A
+     *   INC HL
+     *   DEC B
+     *   JR NZ, loop
+     *   LD HL, 0xC000
+     *   JP 0x0100
+     * */
+    private static final int[] PROGRAM = {
+            0x7E, 0x80, 0x77, 0x23, 0x05, 0x20, 0xF9, 0x21, 0x00, 0xC0, 0xC3, 0x00, 0x01
+    };
+
+    private Registers registers;
+    private BasicMemory memory;
+    private InterruptManager interruptManager;
+    private Context context;
+
+    private Map<Integer, Instruction> legacyInstructions;
+    private Map<Integer, Instruction> legacyPrefixed;
+
+    @Setup
+    public void setup() {
+        registers = new Registers();
+        registers.setPC(PROGRAM_START);
+        registers.setHL(0xC000);
+        memory = new BasicMemory(0x10000);
+        for (int i = 0; i < PROGRAM.length; i++)
+            memory.set(PROGRAM_START + i, PROGRAM[i]);
+        interruptManager = new InterruptManager(null, registers, memory, new InterruptController());
+        context = new Context();
+
+        legacyInstructions = new HashMap<>();
+        legacyPrefixed = new HashMap<>();
+        Stream.of(
+                new ByteLoadInstructions(),
+                new WordLoadInstructions(),
+                new ByteAluInstructions(),
+                new WordAluInstructions(),
+                new RotateInstructions(),
+                new MiscInstructions(),
+                new BitInstructions(),
+                new JumpInstructions()
+        ).forEach(appender -> {
+            appender.add(legacyInstructions);
+            appender.addPrefixed(legacyPrefixed);
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTRUCTIONS_PER_INVOCATION)
+    public int arrayDispatch() {
+        var cycles = 0;
+        for (int i = 0; i < INSTRUCTIONS_PER_INVOCATION; i++) {
+            int opcode = memory.get(registers.incPC());
+            var instr = opcode == 0xCB
+                    ? Instructions.getPrefixed(memory.get(registers.incPC()))
+                    : Instructions.get(opcode);
+            cycles += instr.execute(registers, memory, context, interruptManager);
+        }
+        return cycles;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSTRUCTIONS_PER_INVOCATION)
+    public int legacyListDispatch() {
+        var cycles = 0;
+        for (int i = 0; i < INSTRUCTIONS_PER_INVOCATION; i++) {
+            int opcode = memory.get(registers.incPC());
+            var instr = opcode == 0xCB
+                    ? legacyPrefixed.get(memory.get(registers.incPC()))
+                    : legacyInstructions.get(opcode);
+            var context = new Context();
+            int accumulator = 0;
+            for (var operation : instr.getOperations())
+                accumulator = operation.execute(registers, memory, accumulator, context, interruptManager);
+            cycles += instr.getCycles(context);
+        }
+        return cycles;
+    }
+}
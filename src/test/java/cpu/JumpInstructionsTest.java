@@ -27,9 +27,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2001, 0xFF);
         addressSpace.set(0x2002, 0x25);
 
-        var instr = executeInstruction(0xC3, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC3, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x25FF, registers.getPC());
     }
 
@@ -39,9 +39,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2001, 0x23);
         addressSpace.set(0x2002, 0x21);
 
-        var instr = executeInstruction(0xC3, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC3, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x2123, registers.getPC());
     }
 
@@ -52,9 +52,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2002, 0x21);
         registers.getFlags().setZFlag(false);
 
-        var instr = executeInstruction(0xC2, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC2, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x2123, registers.getPC());
     }
 
@@ -65,9 +65,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2002, 0x21);
         registers.getFlags().setZFlag(true);
 
-        var instr = executeInstruction(0xC2, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC2, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x2003, registers.getPC());
     }
 
@@ -78,9 +78,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2002, 0x21);
         registers.getFlags().setZFlag(false);
 
-        var instr = executeInstruction(0xCA, false, registers, addressSpace);
+        var cycles = executeInstruction(0xCA, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x2003, registers.getPC());
     }
 
@@ -91,9 +91,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2002, 0x21);
         registers.getFlags().setZFlag(true);
 
-        var instr = executeInstruction(0xCA, false, registers, addressSpace);
+        var cycles = executeInstruction(0xCA, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x2137, registers.getPC());
     }
 
@@ -104,9 +104,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2002, 0x24);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0xDA, false, registers, addressSpace);
+        var cycles = executeInstruction(0xDA, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x24FF, registers.getPC());
     }
 
@@ -115,9 +115,9 @@ class JumpInstructionsTest {
         registers.setPC(0x2000);
         registers.setHL(0x1234);
 
-        var instr = executeInstruction(0xE9, false, registers, addressSpace);
+        var cycles = executeInstruction(0xE9, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x1234, registers.getPC());
     }
 
@@ -126,9 +126,9 @@ class JumpInstructionsTest {
         registers.setPC(0x2000);
         addressSpace.set(0x2000, 0x7F);
 
-        var instr = executeInstruction(0x18, false, registers, addressSpace);
+        var cycles = executeInstruction(0x18, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x2080, registers.getPC());
     }
 
@@ -137,9 +137,9 @@ class JumpInstructionsTest {
         registers.setPC(0x2000);
         addressSpace.set(0x2000, 0x80);
 
-        var instr = executeInstruction(0x18, false, registers, addressSpace);
+        var cycles = executeInstruction(0x18, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x1F81, registers.getPC());
     }
 
@@ -150,9 +150,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2000, 0x7F);
         registers.getFlags().setZFlag(false);
 
-        var instr = executeInstruction(0x20, false, registers, addressSpace);
+        var cycles = executeInstruction(0x20, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x2080, registers.getPC());
     }
 
@@ -162,9 +162,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2000, 0x80);
         registers.getFlags().setZFlag(true);
 
-        var instr = executeInstruction(0x28, false, registers, addressSpace);
+        var cycles = executeInstruction(0x28, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x1F81, registers.getPC());
     }
 
@@ -175,9 +175,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2000, 0x80);
         registers.getFlags().setCFlag(false);
 
-        var instr = executeInstruction(0x38, false, registers, addressSpace);
+        var cycles = executeInstruction(0x38, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x2001, registers.getPC());
     }
 
@@ -188,9 +188,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2001, 0x80);
         addressSpace.set(0x2002, 0x31);
 
-        var instr = executeInstruction(0xCD, false, registers, addressSpace);
+        var cycles = executeInstruction(0xCD, false, registers, addressSpace);
 
-        assertEquals(6, instr.getCycles(instr.getContext()));
+        assertEquals(6, cycles);
         assertEquals(0x3180, registers.getPC());
         assertEquals(0xDFFD, registers.getSP());
         assertEquals(0x20, addressSpace.get(0xDFFE));
@@ -205,9 +205,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2002, 0x31);
         registers.getFlags().setCFlag(false);
 
-        var instr = executeInstruction(0xD4, false, registers, addressSpace);
+        var cycles = executeInstruction(0xD4, false, registers, addressSpace);
 
-        assertEquals(6, instr.getCycles(instr.getContext()));
+        assertEquals(6, cycles);
         assertEquals(0x3180, registers.getPC());
         assertEquals(0xDFFD, registers.getSP());
         assertEquals(0x20, addressSpace.get(0xDFFE));
@@ -223,9 +223,9 @@ class JumpInstructionsTest {
         addressSpace.set(0x2002, 0x31);
         registers.getFlags().setCFlag(true);
 
-        var instr = executeInstruction(0xD4, false, registers, addressSpace);
+        var cycles = executeInstruction(0xD4, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x2003, registers.getPC());
         assertEquals(0xE000, registers.getSP());
     }
@@ -245,9 +245,9 @@ class JumpInstructionsTest {
                     registers.setPC(0x2000);
                     registers.setSP(0xDFFF);
 
-                    var instr = executeInstruction(opcode.getOpcode(), false, registers, addressSpace);
+                    var cycles = executeInstruction(opcode.getOpcode(), false, registers, addressSpace);
 
-                    assertEquals(4, instr.getCycles(instr.getContext()));
+                    assertEquals(4, cycles);
                     assertEquals((int) opcode.getTarget(), registers.getPC());
                     assertEquals(0x20, addressSpace.get(0xDFFE));
                     assertEquals(0x00, addressSpace.get(0xDFFD));
@@ -263,9 +263,9 @@ class JumpInstructionsTest {
         addressSpace.set(0xDFFD, 0x80);
         addressSpace.set(0xDFFE, 0x31);
 
-        var instr = executeInstruction(0xC9, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC9, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x3180, registers.getPC());
         assertEquals(0xDFFF, registers.getSP());
     }
@@ -278,9 +278,9 @@ class JumpInstructionsTest {
         addressSpace.set(0xDFFE, 0x31);
         registers.getFlags().setZFlag(true);
 
-        var instr = executeInstruction(0xC8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC8, false, registers, addressSpace);
 
-        assertEquals(5, instr.getCycles(instr.getContext()));
+        assertEquals(5, cycles);
         assertEquals(0x3180, registers.getPC());
         assertEquals(0xDFFF, registers.getSP());
     }
@@ -293,9 +293,9 @@ class JumpInstructionsTest {
         addressSpace.set(0xDFFF, 0x31);
         registers.getFlags().setZFlag(false);
 
-        var instr = executeInstruction(0xC8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xC8, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x2001, registers.getPC());
         assertEquals(0xDFFD, registers.getSP());
     }
@@ -24,10 +24,10 @@ class MiscInstructionsTest {
         registers.setPC(0x2000);
         registers.setC(0x05);
 
-        var instr = executeInstruction(0x31, true, registers, addressSpace);
+        var cycles = executeInstruction(0x31, true, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x50, registers.getC());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -42,10 +42,10 @@ class MiscInstructionsTest {
         registers.setHL(0x1234);
         addressSpace.set(0x1234, 0xF1);
 
-        var instr = executeInstruction(0x36, true, registers, addressSpace);
+        var cycles = executeInstruction(0x36, true, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x1F, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -60,10 +60,10 @@ class MiscInstructionsTest {
         registers.setHL(0x1234);
         addressSpace.set(0x1234, 0x00);
 
-        var instr = executeInstruction(0x36, true, registers, addressSpace);
+        var cycles = executeInstruction(0x36, true, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x00, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertTrue(flags.isZFlag());
@@ -79,11 +79,11 @@ class MiscInstructionsTest {
         registers.setH(0x28);
 
         // Add H first to set correct flags
-        var instr = executeInstruction(0x84, false, registers, addressSpace);
-        instr = executeInstruction(0x27, false, registers, addressSpace);
+        var cycles = executeInstruction(0x84, false, registers, addressSpace);
+        cycles = executeInstruction(0x27, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x47, registers.getA());
 
     }
@@ -94,11 +94,11 @@ class MiscInstructionsTest {
         registers.setH(0x19);
 
         // Sub H first to set correct flags
-        var instr = executeInstruction(0x94, false, registers, addressSpace);
-        instr = executeInstruction(0x27, false, registers, addressSpace);
+        var cycles = executeInstruction(0x94, false, registers, addressSpace);
+        cycles = executeInstruction(0x27, false, registers, addressSpace);
 
         var flags = registers.getFlags();
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x09, registers.getA());
 
     }
@@ -36,4 +36,38 @@ class RegistersTest {
         assertEquals(0xFAC0, r.getAF());
     }
 
+    @Test
+    void pairs_shareSingleRegisters() {
+        // given
+        r = new Registers();
+
+        // when
+        r.setHL(0xC0DE);
+        r.set(RegEnum.B, 0x12);
+        r.set(RegEnum.C, 0x34);
+
+        // then
+        assertEquals(0xC0, r.get(RegEnum.H));
+        assertEquals(0xDE, r.getL());
+        assertEquals(0x1234, r.get(RegEnum.BC));
+    }
+
+    @Test
+    void snapshot_includesPendingFlags() {
+        // given
+        r = new Registers();
+        r.setA(0xFF);
+        r.setPC(0x0150);
+        r.getFlags().setAdd(0xFF, 0x01, 0);
+
+        // when
+        var snapshot = r.snapshot();
+        r.setAF(0x0000);
+        r.setPC(0x0000);
+        r.restore(snapshot);
+
+        // then
+        assertEquals(0xFFB0, r.getAF());
+        assertEquals(0x0150, r.getPC());
+    }
 }
@@ -26,9 +26,9 @@ class RotateInstructionsTest {
         registers.setPC(0x2000);
         registers.setA(0x45);
 
-        var instr = executeInstruction(0x07, false, registers, addressSpace);
+        var cycles = executeInstruction(0x07, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x8A, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -44,9 +44,9 @@ class RotateInstructionsTest {
         registers.setPC(0x2000);
         registers.setA(0xFF);
 
-        var instr = executeInstruction(0x07, false, registers, addressSpace);
+        var cycles = executeInstruction(0x07, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xFF, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -62,9 +62,9 @@ class RotateInstructionsTest {
         registers.setPC(0x2000);
         registers.setA(0x00);
 
-        var instr = executeInstruction(0x07, false, registers, addressSpace);
+        var cycles = executeInstruction(0x07, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x00, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -81,9 +81,9 @@ class RotateInstructionsTest {
         registers.setA(0xFF);
         flags.setCFlag(true);
 
-        var instr = executeInstruction(0x17, false, registers, addressSpace);
+        var cycles = executeInstruction(0x17, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xFF, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -100,9 +100,9 @@ class RotateInstructionsTest {
         registers.setA(0x15);
         flags.setCFlag(true);
 
-        var instr = executeInstruction(0x17, false, registers, addressSpace);
+        var cycles = executeInstruction(0x17, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x2B, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -119,9 +119,9 @@ class RotateInstructionsTest {
         registers.setA(0x88);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x17, false, registers, addressSpace);
+        var cycles = executeInstruction(0x17, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x10, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -138,9 +138,9 @@ class RotateInstructionsTest {
         registers.setA(0x89);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x0F, false, registers, addressSpace);
+        var cycles = executeInstruction(0x0F, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xC4, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -157,9 +157,9 @@ class RotateInstructionsTest {
         registers.setA(0xFF);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x0F, false, registers, addressSpace);
+        var cycles = executeInstruction(0x0F, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0xFF, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -176,9 +176,9 @@ class RotateInstructionsTest {
         registers.setA(0x8A);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x1F, false, registers, addressSpace);
+        var cycles = executeInstruction(0x1F, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x45, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -195,9 +195,9 @@ class RotateInstructionsTest {
         registers.setA(0x01);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x1F, false, registers, addressSpace);
+        var cycles = executeInstruction(0x1F, false, registers, addressSpace);
 
-        assertEquals(1, instr.getCycles(instr.getContext()));
+        assertEquals(1, cycles);
         assertEquals(0x00, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -214,9 +214,9 @@ class RotateInstructionsTest {
         registers.setB(0x55);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x00, true, registers, addressSpace);
+        var cycles = executeInstruction(0x00, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xAA, registers.getB());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -234,9 +234,9 @@ class RotateInstructionsTest {
         addressSpace.set(0x1234, 0x85);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x06, true, registers, addressSpace);
+        var cycles = executeInstruction(0x06, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x0B, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -253,9 +253,9 @@ class RotateInstructionsTest {
         registers.setB(0x55);
         flags.setCFlag(true);
 
-        var instr = executeInstruction(0x10, true, registers, addressSpace);
+        var cycles = executeInstruction(0x10, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xAB, registers.getB());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -273,9 +273,9 @@ class RotateInstructionsTest {
         addressSpace.set(0x1234, 0x85);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x16, true, registers, addressSpace);
+        var cycles = executeInstruction(0x16, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x0A, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -292,9 +292,9 @@ class RotateInstructionsTest {
         registers.setC(0xAF);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x09, true, registers, addressSpace);
+        var cycles = executeInstruction(0x09, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xD7, registers.getC());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -312,9 +312,9 @@ class RotateInstructionsTest {
         addressSpace.set(0x1234, 0x85);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x0E, true, registers, addressSpace);
+        var cycles = executeInstruction(0x0E, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0xC2, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -331,9 +331,9 @@ class RotateInstructionsTest {
         registers.setD(0xF9);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x1A, true, registers, addressSpace);
+        var cycles = executeInstruction(0x1A, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x7C, registers.getD());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -351,9 +351,9 @@ class RotateInstructionsTest {
         addressSpace.set(0x1234, 0x88);
         flags.setCFlag(true);
 
-        var instr = executeInstruction(0x1E, true, registers, addressSpace);
+        var cycles = executeInstruction(0x1E, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0xC4, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -370,9 +370,9 @@ class RotateInstructionsTest {
         registers.setA(0xAF);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x27, true, registers, addressSpace);
+        var cycles = executeInstruction(0x27, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x5E, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -390,9 +390,9 @@ class RotateInstructionsTest {
         addressSpace.set(0x1234, 0xA1);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x26, true, registers, addressSpace);
+        var cycles = executeInstruction(0x26, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x42, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -409,9 +409,9 @@ class RotateInstructionsTest {
         registers.setA(0xAF);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x2F, true, registers, addressSpace);
+        var cycles = executeInstruction(0x2F, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xD7, registers.getA());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -429,9 +429,9 @@ class RotateInstructionsTest {
         addressSpace.set(0x1234, 0xA0);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x2E, true, registers, addressSpace);
+        var cycles = executeInstruction(0x2E, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0xD0, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -448,9 +448,9 @@ class RotateInstructionsTest {
         registers.setE(0xAF);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x3B, true, registers, addressSpace);
+        var cycles = executeInstruction(0x3B, true, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x57, registers.getE());
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -468,9 +468,9 @@ class RotateInstructionsTest {
         addressSpace.set(0x1234, 0xA0);
         flags.setCFlag(false);
 
-        var instr = executeInstruction(0x3E, true, registers, addressSpace);
+        var cycles = executeInstruction(0x3E, true, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x50, addressSpace.get(0x1234));
         assertEquals(0x2000, registers.getPC());
         assertFalse(flags.isZFlag());
@@ -26,9 +26,9 @@ public class WordAluInstructionsTest {
         registers.setHL(0x1004);
         flags.setZFlag(true);
 
-        var instr = executeInstruction(0x29, false, registers, addressSpace);
+        var cycles = executeInstruction(0x29, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x2008, registers.getHL());
         assertEquals(0x2000, registers.getPC());
         // Zero flag not affected
@@ -45,9 +45,9 @@ public class WordAluInstructionsTest {
         registers.setHL(0xFFFE);
         flags.setZFlag(true);
 
-        var instr = executeInstruction(0x29, false, registers, addressSpace);
+        var cycles = executeInstruction(0x29, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xFFFC, registers.getHL());
         assertEquals(0x2000, registers.getPC());
         // Zero flag not affected
@@ -65,9 +65,9 @@ public class WordAluInstructionsTest {
         registers.setSP(0x0010);
         flags.setZFlag(true);
 
-        var instr = executeInstruction(0x39, false, registers, addressSpace);
+        var cycles = executeInstruction(0x39, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x200E, registers.getHL());
         assertEquals(0x2000, registers.getPC());
         // Zero flag not affected
@@ -85,9 +85,9 @@ public class WordAluInstructionsTest {
         registers.setSP(0x0010);
         flags.setZFlag(true);
 
-        var instr = executeInstruction(0x39, false, registers, addressSpace);
+        var cycles = executeInstruction(0x39, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x110E, registers.getHL());
         assertEquals(0x2000, registers.getPC());
         // Zero flag not affected
@@ -105,9 +105,9 @@ public class WordAluInstructionsTest {
         addressSpace.set(0x2001, -25 & 0xFF);
         flags.setZFlag(true);
 
-        var instr = executeInstruction(0xE8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xE8, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x00E7, registers.getSP());
         assertEquals(0x2002, registers.getPC());
         // Zero flag reset
@@ -126,9 +126,9 @@ public class WordAluInstructionsTest {
         addressSpace.set(0x2001, -1 & 0xFF);
         flags.setZFlag(true);
 
-        var instr = executeInstruction(0xE8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xE8, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0xFFFE, registers.getSP());
         assertEquals(0x2002, registers.getPC());
         // Zero flag reset
@@ -146,9 +146,9 @@ public class WordAluInstructionsTest {
         addressSpace.set(0x2001, 0x01);
         flags.setZFlag(true);
 
-        var instr = executeInstruction(0xE8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xE8, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x0120, registers.getSP());
         assertEquals(0x2002, registers.getPC());
         // Zero flag not affected
@@ -164,9 +164,9 @@ public class WordAluInstructionsTest {
         registers.setPC(0x2000);
         registers.setBC(0x2000);
 
-        var instr = executeInstruction(0x03, false, registers, addressSpace);
+        var cycles = executeInstruction(0x03, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x2001, registers.getBC());
         assertEquals(0x2000, registers.getPC());
     }
@@ -177,9 +177,9 @@ public class WordAluInstructionsTest {
         registers.setPC(0x2000);
         registers.setBC(0xFFFF);
 
-        var instr = executeInstruction(0x03, false, registers, addressSpace);
+        var cycles = executeInstruction(0x03, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x0000, registers.getBC());
         assertEquals(0x2000, registers.getPC());
     }
@@ -192,9 +192,9 @@ public class WordAluInstructionsTest {
         registers.setPC(0x2000);
         registers.setSP(0x2000);
 
-        var instr = executeInstruction(0x3B, false, registers, addressSpace);
+        var cycles = executeInstruction(0x3B, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x1FFF, registers.getSP());
         assertEquals(0x2000, registers.getPC());
     }
@@ -205,9 +205,9 @@ public class WordAluInstructionsTest {
         registers.setPC(0x2000);
         registers.setBC(0x0000);
 
-        var instr = executeInstruction(0x0B, false, registers, addressSpace);
+        var cycles = executeInstruction(0x0B, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0xFFFF, registers.getBC());
         assertEquals(0x2000, registers.getPC());
     }
@@ -26,9 +26,9 @@ class WordLoadInstructionsTest {
         addressSpace.set(0x2001, 0x99);
         addressSpace.set(0x2002, 0xA0);
 
-        var instr = executeInstruction(0x01, false, registers, addressSpace);
+        var cycles = executeInstruction(0x01, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0xA099, registers.getBC());
         assertEquals(0x2003, registers.getPC());
     }
@@ -39,9 +39,9 @@ class WordLoadInstructionsTest {
         addressSpace.set(0x2001, 0x99);
         addressSpace.set(0x2002, 0xA0);
 
-        var instr = executeInstruction(0x31, false, registers, addressSpace);
+        var cycles = executeInstruction(0x31, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0xA099, registers.getSP());
         assertEquals(0x2003, registers.getPC());
     }
@@ -52,9 +52,9 @@ class WordLoadInstructionsTest {
         registers.setSP(0x2001);
         registers.setHL(0x1111);
 
-        var instr = executeInstruction(0xF9, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF9, false, registers, addressSpace);
 
-        assertEquals(2, instr.getCycles(instr.getContext()));
+        assertEquals(2, cycles);
         assertEquals(0x1111, registers.getSP());
         assertEquals(0x2000, registers.getPC());
     }
@@ -66,9 +66,9 @@ class WordLoadInstructionsTest {
         registers.setHL(0x1111);
         addressSpace.set(0x2001, 0x01);
 
-        var instr = executeInstruction(0xF8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF8, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x00FF, registers.getSP());
         assertEquals(0x2002, registers.getPC());
         assertEquals(0x0100, registers.getHL());
@@ -85,9 +85,9 @@ class WordLoadInstructionsTest {
         registers.setHL(0x1111);
         addressSpace.set(0x2001, 0x01);
 
-        var instr = executeInstruction(0xF8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF8, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x001F, registers.getSP());
         assertEquals(0x2002, registers.getPC());
         assertEquals(0x0020, registers.getHL());
@@ -104,9 +104,9 @@ class WordLoadInstructionsTest {
         registers.setHL(0x1111);
         addressSpace.set(0x2001, 0x01);
 
-        var instr = executeInstruction(0xF8, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF8, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x001E, registers.getSP());
         assertEquals(0x2002, registers.getPC());
         assertEquals(0x001F, registers.getHL());
@@ -120,9 +120,9 @@ class WordLoadInstructionsTest {
         addressSpace.set(0x2001, 0x11);
         addressSpace.set(0x2002, 0xFC);
 
-        var instr = executeInstruction(0x08, false, registers, addressSpace);
+        var cycles = executeInstruction(0x08, false, registers, addressSpace);
 
-        assertEquals(5, instr.getCycles(instr.getContext()));
+        assertEquals(5, cycles);
         assertEquals(0xAB1F, registers.getSP());
         assertEquals(0x2003, registers.getPC());
         assertEquals(0x1F, addressSpace.get(0xFC11));
@@ -135,9 +135,9 @@ class WordLoadInstructionsTest {
         registers.setSP(0x221F);
         registers.setAF(0x1230);
 
-        var instr = executeInstruction(0xF5, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF5, false, registers, addressSpace);
 
-        assertEquals(4, instr.getCycles(instr.getContext()));
+        assertEquals(4, cycles);
         assertEquals(0x221D, registers.getSP());
         assertEquals(0x2000, registers.getPC());
         assertEquals(0x12, addressSpace.get(0x221E));
@@ -152,9 +152,9 @@ class WordLoadInstructionsTest {
         addressSpace.set(0x221D, 0x12);
         addressSpace.set(0x221C, 0x34);
 
-        var instr = executeInstruction(0xF1, false, registers, addressSpace);
+        var cycles = executeInstruction(0xF1, false, registers, addressSpace);
 
-        assertEquals(3, instr.getCycles(instr.getContext()));
+        assertEquals(3, cycles);
         assertEquals(0x221E, registers.getSP());
         assertEquals(0x2000, registers.getPC());
         assertEquals(0x1230, registers.getAF());
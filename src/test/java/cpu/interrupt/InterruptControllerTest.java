@@ -0,0 +1,33 @@
+package cpu.interrupt;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterruptControllerTest {
+
+    @Test
+    void testRequest_pendingOnlyWhenEnabled() {
+        var controller = new InterruptController();
+        controller.request(InterruptEnum.TIMER);
+
+        assertEquals(InterruptEnum.TIMER.get(), controller.getIF());
+        assertEquals(0, controller.getPending());
+
+        controller.setIE(InterruptEnum.TIMER.get() | InterruptEnum.VBLANK.get());
+        assertEquals(InterruptEnum.TIMER.get(), controller.getPending());
+    }
+
+    @Test
+    void testAcknowledge_clearsOnlyServicedInterrupt() {
+        var controller = new InterruptController();
+        controller.setIE(0xFF);
+        controller.request(InterruptEnum.VBLANK);
+        controller.request(InterruptEnum.JOYPAD);
+
+        controller.acknowledge(InterruptEnum.VBLANK);
+
+        assertEquals(InterruptEnum.JOYPAD.get(), controller.getIF());
+        assertEquals(InterruptEnum.JOYPAD.get(), controller.getPending());
+    }
+}
@@ -0,0 +1,61 @@
+package cpu.jit;
+
+import cpu.Context;
+import cpu.Registers;
+import cpu.instruction.Instruction;
+import cpu.interrupt.InterruptController;
+import cpu.interrupt.InterruptManager;
+import cpu.scheduler.Scheduler;
+import memory.BasicMemory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockClassWriterTest {
+
+    @Test
+    void testWrite_executorIndexesPushedWithBipush() {
+        // Indexes 6 and up no longer fit ICONST
+        assertRunsInOrder(IntStream.range(0, 6 + 1).map(i -> 0x0100 + i).toArray());
+    }
+
+    @Test
+    void testWrite_executorIndexesPushedWithSipush() {
+        // Indexes 128 and up no longer fit BIPUSH
+        assertRunsInOrder(IntStream.range(0, 128 + 1).map(i -> 0xC000 + i).toArray());
+    }
+
+    @Test
+    void testWrite_operandAddressesPushedWithEveryInstruction() {
+        // ICONST, BIPUSH, SIPUSH and LDC_W on both sides of each limit, LDC_W ones repeated to share a constant
+        assertRunsInOrder(new int[]{0, 5, 6, 127, 128, 0x7FFF, 0x8000, 0xFFFF, 0x8000});
+    }
+
+    // Runs a block of instructions that record PC and checks they ran in order with PC at their operand address
+    private void assertRunsInOrder(int[] operandAddresses) {
+        var visited = new ArrayList<Integer>();
+        var instructions = new Instruction[operandAddresses.length];
+        for (int i = 0; i < instructions.length; i++) {
+            instructions[i] = new Instruction(List.of((registers, addressSpace, accumulator, context, interruptManager) -> {
+                visited.add(registers.getPC());
+                return accumulator;
+            }), context -> 1, "RECORD", 0, false);
+        }
+        var block = new Block(0, 0x0100, 0x0100 + instructions.length, instructions, operandAddresses);
+        block.setCompiled(new BlockCompiler().compile(block));
+
+        var registers = new Registers();
+        var memory = new BasicMemory(0x10000);
+        var scheduler = new Scheduler();
+        var interruptManager = new InterruptManager(null, registers, memory, new InterruptController());
+        var cycles = block.execute(registers, memory, new Context(), interruptManager, new BlockClock(scheduler, interruptManager, () -> 0));
+
+        assertEquals(IntStream.of(operandAddresses).boxed().toList(), visited);
+        assertEquals(operandAddresses.length, cycles);
+        assertEquals(operandAddresses.length, scheduler.getNow());
+    }
+}
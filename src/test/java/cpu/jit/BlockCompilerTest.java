@@ -0,0 +1,236 @@
+package cpu.jit;
+
+import cpu.Context;
+import cpu.Interpreter;
+import cpu.Registers;
+import cpu.interrupt.InterruptController;
+import cpu.interrupt.InterruptEnum;
+import cpu.interrupt.InterruptManager;
+import cpu.scheduler.Scheduler;
+import cpu.timer.Timers;
+import memory.BasicMemory;
+import memory.MMU;
+import memory.MMUFixture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCompilerTest {
+
+    /*
+     * loop:
+     *   LD A, (HL)
+     *   ADD A, B
+     *   LD (HL), A
+     *   INC HL
+     *   DEC B
+     *   JR NZ, loop
+     * */
+    private static final int[] PROGRAM = {0x7E, 0x80, 0x77, 0x23, 0x05, 0x20, 0xF9};
+
+    // Cartridge code starts after the header
+    private static final int ROM_START = 0x0150;
+
+    @TempDir
+    Path dir;
+
+    Registers registers;
+    BasicMemory memory;
+    Scheduler scheduler;
+
+    @BeforeEach
+    void init() {
+        registers = new Registers();
+        memory = new BasicMemory(0x10000);
+        scheduler = new Scheduler();
+    }
+
+    @Test
+    void testDecode_endsOnJump() {
+        load(0x0100, PROGRAM);
+
+        var block = new BlockDecoder(memory).decode(0x0100, 0);
+
+        assertEquals(6, block.getInstructions().length);
+        assertEquals(0x0107, block.getEndAddress());
+        assertArrayEquals(new int[]{0x0101, 0x0102, 0x0103, 0x0104, 0x0105, 0x0106}, block.getOperandAddresses());
+    }
+
+    @Test
+    void testDecode_staysInPage() {
+        // NOPs up to the end of the page
+        load(0x01F0, new int[0x10]);
+
+        var block = new BlockDecoder(memory).decode(0x01F0, 0);
+
+        assertEquals(0x10, block.getInstructions().length);
+        assertEquals(0x0200, block.getEndAddress());
+    }
+
+    @Test
+    void testBlock_registerReadSeesClockOfItsInstruction() throws IOException {
+        // 8 NOPs, LDH A,(TIMA), JR -2
+        var mmu = createMMU(MMUFixture.romWith(ROM_START, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0xF0, 0x05, 0x18, 0xFE));
+        mmu.setTimers(new Timers(mmu.getInterruptController(), scheduler));
+        // On, 4 M-cycles per increment
+        mmu.set(0xFF07, 0x05);
+        var interruptManager = new InterruptManager(null, registers, mmu, mmu.getInterruptController());
+        registers.setPC(ROM_START);
+
+        var block = new BlockDecoder(mmu).decode(ROM_START, 0);
+        block.setCompiled(new BlockCompiler().compile(block));
+        var cycles = block.execute(registers, mmu, new Context(), interruptManager, clock(mmu, interruptManager));
+
+        assertEquals(10, block.getInstructions().length);
+        // Read 8 M-cycles in, not at the start of the block
+        assertEquals(2, registers.getA());
+        assertEquals(cycles, scheduler.getNow());
+    }
+
+    @Test
+    void testBlock_dueInterruptStopsBlock() throws IOException {
+        // 8 NOPs, JR -2
+        var mmu = createMMU(MMUFixture.romWith(ROM_START, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x18, 0xFE));
+        mmu.setTimers(new Timers(mmu.getInterruptController(), scheduler));
+        mmu.getInterruptController().setIE(InterruptEnum.TIMER.get());
+        // TIMA overflows 4 M-cycles in
+        mmu.set(0xFF07, 0x05);
+        mmu.set(0xFF05, 0xFF);
+        var interruptManager = new InterruptManager(null, registers, mmu, mmu.getInterruptController());
+        interruptManager.updateEnableInterruptsFlag();
+        registers.setPC(ROM_START);
+
+        var block = new BlockDecoder(mmu).decode(ROM_START, 0);
+        block.setCompiled(new BlockCompiler().compile(block));
+        var cycles = block.execute(registers, mmu, new Context(), interruptManager, clock(mmu, interruptManager));
+
+        assertEquals(4, cycles);
+        assertEquals(ROM_START + 4, registers.getPC());
+        assertTrue(interruptManager.isInterruptDue());
+    }
+
+    @Test
+    void testBlock_bankSwitchStopsBlock() throws IOException {
+        // LD A,0x02, LD (0x2000),A, LD B,0x11, JR -2
+        assertBankSwitchStopsBlock(new int[]{0x3E, 0x02, 0xEA, 0x00, 0x20, 0x06, 0x11, 0x18, 0xFE});
+    }
+
+    @Test
+    void testBlock_bankSwitchThroughRegisterStopsBlock() throws IOException {
+        // LD HL,0x2000, LD (HL),0x02, LD B,0x11, JR -2
+        assertBankSwitchStopsBlock(new int[]{0x21, 0x00, 0x20, 0x36, 0x02, 0x06, 0x11, 0x18, 0xFE});
+    }
+
+    @Test
+    void testCompiledBlock_matchesInterpreter() {
+        load(0x0100, PROGRAM);
+        memory.set(0xC000, 0x12);
+        registers.setPC(0x0100);
+        registers.setHL(0xC000);
+        registers.setB(0x03);
+
+        var expectedRegisters = new Registers();
+        var expectedMemory = new BasicMemory(0x10000);
+        load(expectedMemory, 0x0100, PROGRAM);
+        expectedMemory.set(0xC000, 0x12);
+        expectedRegisters.setPC(0x0100);
+        expectedRegisters.setHL(0xC000);
+        expectedRegisters.setB(0x03);
+
+        var interpreter = new Interpreter(expectedRegisters, expectedMemory, new InterruptManager(null, expectedRegisters, expectedMemory, new InterruptController()), new Scheduler());
+        var expectedCycles = 0;
+        for (int i = 0; i < PROGRAM.length - 1; i++)
+            expectedCycles += interpreter.execute();
+
+        var block = new BlockDecoder(memory).decode(0x0100, 0);
+        block.setCompiled(new BlockCompiler().compile(block));
+        var interruptManager = new InterruptManager(null, registers, memory, new InterruptController());
+        var cycles = block.execute(registers, memory, new Context(), interruptManager, clock(interruptManager));
+
+        assertEquals(expectedCycles, cycles);
+        assertEquals(expectedRegisters.getAF(), registers.getAF());
+        assertEquals(expectedRegisters.getBC(), registers.getBC());
+        assertEquals(expectedRegisters.getHL(), registers.getHL());
+        assertEquals(expectedRegisters.getPC(), registers.getPC());
+        assertEquals(0x0100, registers.getPC());
+        assertEquals(0x15, memory.get(0xC000));
+    }
+
+    @Test
+    void testInterpretedBlock_matchesCompiled() {
+        load(0x0100, PROGRAM);
+        memory.set(0xC000, 0x12);
+        registers.setPC(0x0100);
+        registers.setHL(0xC000);
+        registers.setB(0x01);
+
+        var block = new BlockDecoder(memory).decode(0x0100, 0);
+        var interruptManager = new InterruptManager(null, registers, memory, new InterruptController());
+        var interpretedCycles = block.execute(registers, memory, new Context(), interruptManager, clock(interruptManager));
+        var interpretedAF = registers.getAF();
+
+        registers.setPC(0x0100);
+        registers.setHL(0xC000);
+        registers.setB(0x01);
+        memory.set(0xC000, 0x12);
+        block.setCompiled(new BlockCompiler().compile(block));
+        var compiledCycles = block.execute(registers, memory, new Context(), interruptManager, clock(interruptManager));
+
+        assertEquals(interpretedCycles, compiledCycles);
+        assertEquals(interpretedAF, registers.getAF());
+        // B reached 0, so JR NZ falls through
+        assertEquals(0x0107, registers.getPC());
+    }
+
+    // MBC1 with 4 banks, the code in bank 1 switches to bank 2 and would load B with 0x11 if it kept running
+    private void assertBankSwitchStopsBlock(int[] bank1) throws IOException {
+        var rom = new byte[0x4000 * 4];
+        rom[0x0147] = 0x01;
+        for (int i = 0; i < bank1.length; i++)
+            rom[0x4000 + i] = (byte) bank1[i];
+        // LD B,0x22 in bank 2, where the store returns to
+        rom[0x8005] = 0x06;
+        rom[0x8006] = 0x22;
+        var mmu = createMMU(rom);
+        var decoder = new BlockDecoder(mmu);
+        var interruptManager = new InterruptManager(null, registers, mmu, mmu.getInterruptController());
+        var clock = clock(mmu, interruptManager);
+        registers.setPC(0x4000);
+
+        decoder.decode(registers.getPC(), mmu.getRomBank()).execute(registers, mmu, new Context(), interruptManager, clock);
+        assertEquals(0x4005, registers.getPC());
+        assertEquals(0x02, mmu.getRomBank());
+
+        decoder.decode(registers.getPC(), mmu.getRomBank()).execute(registers, mmu, new Context(), interruptManager, clock);
+        assertEquals(0x22, registers.getB());
+    }
+
+    private MMU createMMU(byte[] rom) throws IOException {
+        var mmu = MMUFixture.createMMU(dir, rom);
+        mmu.setAfterBios();
+        return mmu;
+    }
+
+    private BlockClock clock(MMU mmu, InterruptManager interruptManager) {
+        return new BlockClock(scheduler, interruptManager, mmu::getRomBank);
+    }
+
+    // Without an MBC the bank never changes
+    private BlockClock clock(InterruptManager interruptManager) {
+        return new BlockClock(scheduler, interruptManager, () -> 0);
+    }
+
+    private void load(int address, int[] program) {
+        load(memory, address, program);
+    }
+
+    private static void load(BasicMemory memory, int address, int[] program) {
+        for (int i = 0; i < program.length; i++)
+            memory.set(address + i, program[i]);
+    }
+}
@@ -0,0 +1,85 @@
+package cpu.jit;
+
+import memory.MMU;
+import memory.MMUFixture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockDiskCacheTest {
+
+    // INC A, DEC B, JR NZ, -4
+    private static final int[] PROGRAM = {0x3C, 0x05, 0x20, 0xFC};
+    private static final int START = 0x0150;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testLoad_installsCompiledBlocks() throws IOException {
+        var mmu = createMMU(PROGRAM);
+        save(mmu);
+
+        var blockCache = new BlockCache(mmu);
+        var loaded = new BlockDiskCache(dir, mmu, new BlockCompiler()).load(blockCache);
+
+        assertEquals(1, loaded);
+        var block = blockCache.get(START);
+        assertNotNull(block.getCompiled());
+        assertEquals(START + PROGRAM.length, block.getEndAddress());
+    }
+
+    @Test
+    void testLoad_discardsBlocksNotMatchingRom() throws IOException {
+        save(createMMU(PROGRAM));
+
+        // Same header checksum, different code
+        var mmu = createMMU(new int[]{0x3D, 0x05, 0x20, 0xFC});
+        var blockCache = new BlockCache(mmu);
+        var loaded = new BlockDiskCache(dir, mmu, new BlockCompiler()).load(blockCache);
+
+        assertEquals(0, loaded);
+        assertNull(blockCache.get(START));
+    }
+
+    @Test
+    void testLoad_discardsBlocksWithOtherOperandAddresses() throws IOException {
+        var mmu = createMMU(PROGRAM);
+        var file = save(mmu);
+
+        // The entry ends with the operand address of JR NZ
+        var bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1]++;
+        Files.write(file, bytes);
+
+        var blockCache = new BlockCache(mmu);
+        var loaded = new BlockDiskCache(dir, mmu, new BlockCompiler()).load(blockCache);
+
+        assertEquals(0, loaded);
+        assertNull(blockCache.get(START));
+    }
+
+    private Path save(MMU mmu) {
+        var compiler = new BlockCompiler();
+        var blockCache = new BlockCache(mmu);
+        var block = new BlockDecoder(mmu).decode(START, 0);
+        block.setCompiled(compiler.compile(block));
+        blockCache.put(block);
+
+        var diskCache = new BlockDiskCache(dir, mmu, compiler);
+        diskCache.save(blockCache.getCompiledRomBlocks());
+        return diskCache.getFile();
+    }
+
+    private MMU createMMU(int[] program) throws IOException {
+        var rom = MMUFixture.romWith(START, program);
+        rom[0x014E] = 0x12;
+        rom[0x014F] = 0x34;
+        return MMUFixture.createMMU(dir, rom);
+    }
+}
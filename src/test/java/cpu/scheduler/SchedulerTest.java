@@ -0,0 +1,75 @@
+package cpu.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchedulerTest {
+
+    Scheduler scheduler;
+    List<String> fired;
+
+    @BeforeEach
+    void init() {
+        scheduler = new Scheduler();
+        fired = new ArrayList<>();
+    }
+
+    @Test
+    void advance_runsDueEventsInDeadlineOrder() {
+        scheduler.register(Event.PPU_MODE, deadline -> fired.add("PPU@" + deadline));
+        scheduler.register(Event.SERIAL, deadline -> fired.add("SERIAL@" + deadline));
+        scheduler.schedule(Event.PPU_MODE, 20);
+        scheduler.schedule(Event.SERIAL, 10);
+
+        scheduler.advance(5);
+        assertTrue(fired.isEmpty());
+
+        scheduler.advance(30);
+        assertEquals(List.of("SERIAL@10", "PPU@20"), fired);
+        assertEquals(Scheduler.NEVER, scheduler.getNextDeadline());
+    }
+
+    @Test
+    void advance_periodicEventCatchesUp() {
+        scheduler.register(Event.SERIAL, deadline -> {
+            fired.add("SERIAL@" + deadline);
+            scheduler.schedule(Event.SERIAL, deadline + 64);
+        });
+        scheduler.schedule(Event.SERIAL, 64);
+
+        scheduler.advance(200);
+
+        assertEquals(List.of("SERIAL@64", "SERIAL@128", "SERIAL@192"), fired);
+        assertEquals(256, scheduler.getNextDeadline());
+    }
+
+    @Test
+    void schedule_laterDeadlineOfNextEventFindsNewMinimum() {
+        scheduler.schedule(Event.TIMA_OVERFLOW, 10);
+        scheduler.schedule(Event.PPU_MODE, 30);
+
+        scheduler.schedule(Event.TIMA_OVERFLOW, 50);
+        assertEquals(30, scheduler.getNextDeadline());
+
+        scheduler.cancel(Event.PPU_MODE);
+        assertEquals(50, scheduler.getNextDeadline());
+        assertFalse(scheduler.isScheduled(Event.PPU_MODE));
+    }
+
+    @Test
+    void cyclesToNextEvent_skipsToEarliestDeadline() {
+        assertEquals(1, scheduler.cyclesToNextEvent());
+
+        scheduler.register(Event.PPU_MODE, deadline -> fired.add("PPU@" + deadline));
+        scheduler.schedule(Event.PPU_MODE, 114);
+        scheduler.advance(14);
+
+        scheduler.advance(scheduler.cyclesToNextEvent());
+        assertEquals(List.of("PPU@114"), fired);
+    }
+}
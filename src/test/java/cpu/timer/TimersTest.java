@@ -0,0 +1,70 @@
+package cpu.timer;
+
+import cpu.interrupt.InterruptRegs;
+import cpu.scheduler.Scheduler;
+import memory.MMU;
+import memory.MMUFixture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimersTest {
+
+    @TempDir
+    Path dir;
+
+    Scheduler scheduler;
+    MMU mmu;
+
+    @BeforeEach
+    void init() throws IOException {
+        mmu = MMUFixture.createMMU(dir, new byte[MMUFixture.ROM_SIZE]);
+        scheduler = new Scheduler();
+        mmu.setTimers(new Timers(mmu.getInterruptController(), scheduler));
+    }
+
+    @Test
+    void div_derivedFromCycles() {
+        scheduler.advance(64 * 3 + 10);
+        assertEquals(3, mmu.get(0xFF04));
+
+        mmu.set(0xFF04, 0x55);
+        assertEquals(0, mmu.get(0xFF04));
+
+        scheduler.advance(64);
+        assertEquals(1, mmu.get(0xFF04));
+    }
+
+    @Test
+    void tima_overflowReloadsAndRequestsInterrupt() {
+        mmu.set(0xFF06, 0xF0);
+        // On, 4 M-cycles per increment
+        mmu.set(0xFF07, 0x05);
+        mmu.set(0xFF05, 0xFE);
+
+        scheduler.advance(4);
+        assertEquals(0xFF, mmu.get(0xFF05));
+        assertEquals(0, mmu.get(InterruptRegs.IF.getAddress()) & 0x04);
+
+        scheduler.advance(4 * 3);
+        assertEquals(0xF2, mmu.get(0xFF05));
+        assertEquals(0x04, mmu.get(InterruptRegs.IF.getAddress()) & 0x04);
+    }
+
+    @Test
+    void tima_stopsWhenTimerOff() {
+        mmu.set(0xFF07, 0x05);
+        scheduler.advance(4 * 5);
+
+        mmu.set(0xFF07, 0x01);
+        scheduler.advance(4 * 5);
+
+        assertEquals(5, mmu.get(0xFF05));
+        assertEquals(0x01, mmu.get(0xFF07));
+    }
+}
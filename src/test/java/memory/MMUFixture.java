@@ -0,0 +1,52 @@
+package memory;
+
+import input.InputManager;
+import ppu.Tiles;
+import ppu.oam.SpriteManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+ * Builds an MMU from ROM bytes. The files it is loaded from are written to the given directory,
+ * the test's @TempDir, so they are removed with it.
+ * */
+public final class MMUFixture {
+
+    public static final int ROM_SIZE = 0x8000;
+    public static final int BIOS_SIZE = 0x100;
+
+    private MMUFixture() {
+    }
+
+    // A 32KB ROM without MBC holding the program at start
+    public static byte[] romWith(int start, int... program) {
+        var rom = new byte[ROM_SIZE];
+        for (int i = 0; i < program.length; i++)
+            rom[start + i] = (byte) program[i];
+        return rom;
+    }
+
+    // Boot ROM of NOPs
+    public static MMU createMMU(Path dir, byte[] rom) throws IOException {
+        return createMMU(dir, rom, new byte[BIOS_SIZE]);
+    }
+
+    public static MMU createMMU(Path dir, byte[] rom, byte[] bios) throws IOException {
+        return createMMU(dir, rom, bios, new SpriteManager(), new Tiles());
+    }
+
+    // For tests that need the sprites and tiles the MMU feeds, e.g. to run a PPU on it
+    public static MMU createMMU(Path dir, byte[] rom, SpriteManager spriteManager, Tiles tiles) throws IOException {
+        return createMMU(dir, rom, new byte[BIOS_SIZE], spriteManager, tiles);
+    }
+
+    private static MMU createMMU(Path dir, byte[] rom, byte[] bios, SpriteManager spriteManager, Tiles tiles) throws IOException {
+        // Fresh names, ROM images are cached by path and a test may build several MMUs
+        var romPath = Files.write(Files.createTempFile(dir, "rom", ".gb"), rom);
+        var biosPath = Files.write(Files.createTempFile(dir, "bios", ".bin"), bios);
+
+        return new MMU(new InputManager(), spriteManager, tiles, romPath.toString(), biosPath.toString());
+    }
+}
@@ -0,0 +1,78 @@
+package memory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MMUTest {
+
+    @TempDir
+    Path dir;
+
+    MMU mmu;
+
+    @BeforeEach
+    void init() throws IOException {
+        // MBC1, 4 banks, the first byte of every bank holds its number
+        var rom = new byte[0x4000 * 4];
+        rom[0x0147] = 0x01;
+        for (int bank = 0; bank < 4; bank++)
+            rom[bank * 0x4000] = (byte) bank;
+        var bios = new byte[MMUFixture.BIOS_SIZE];
+        bios[0] = 0x31;
+
+        mmu = MMUFixture.createMMU(dir, rom, bios);
+    }
+
+    @Test
+    void get_bootRomMappedUntilAfterBios() {
+        assertEquals(0x31, mmu.get(0x0000));
+
+        mmu.setAfterBios();
+
+        assertEquals(0x00, mmu.get(0x0000));
+    }
+
+    @Test
+    void set_romBankSwitchRemapsPages() {
+        mmu.setAfterBios();
+        assertEquals(0x01, mmu.get(0x4000));
+
+        mmu.set(0x2000, 0x03);
+
+        assertEquals(0x03, mmu.get(0x4000));
+        assertEquals(0x03, mmu.getRomBank());
+    }
+
+    @Test
+    void set_echoRamMirrorsWorkingRam() {
+        mmu.set(0xC123, 0x42);
+
+        assertEquals(0x42, mmu.get(0xE123));
+    }
+
+    @Test
+    void get_rejectsAddressOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> mmu.get(0x10000));
+        assertThrows(IllegalArgumentException.class, () -> mmu.get(-1));
+    }
+
+    @Test
+    void set_rejectsValueOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> mmu.set(0xC000, 0x100));
+        assertThrows(IllegalArgumentException.class, () -> mmu.set(0x10000, 0x00));
+        assertEquals(0x00, mmu.get(0xC000));
+    }
+
+    @Test
+    void getFootprint_isAQuarterOfEstimatedIntLayout() {
+        var footprint = mmu.getFootprint();
+
+        assertTrue(footprint.getEstimatedIntLayoutBytes() >= 4 * footprint.getBytes(), footprint.toString());
+    }
+}
@@ -0,0 +1,49 @@
+package memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RomImageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void open_sharesImageOfSameFile() throws IOException {
+        var rom = Files.write(Files.createTempFile(dir, "rom", ".gb"), new byte[RomImage.BANK_SIZE * 4]).toString();
+
+        assertSame(RomImage.open(rom), RomImage.open(rom));
+    }
+
+    @Test
+    void open_removesEntryOfCollectedImage() throws IOException, InterruptedException {
+        var rom = Files.write(Files.createTempFile(dir, "rom", ".gb"), new byte[RomImage.BANK_SIZE * 2]).toRealPath();
+        RomImage.open(rom.toString());
+        assertTrue(RomImage.isCached(rom));
+
+        // Nothing holds the image, it goes with the next full collection
+        for (int i = 0; i < 100 && RomImage.isCached(rom); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertFalse(RomImage.isCached(rom));
+    }
+
+    @Test
+    void getBank_padsBankPastEndOfFile() throws IOException {
+        var bytes = new byte[0x0150];
+        bytes[0x014F] = 0x12;
+        var image = RomImage.open(Files.write(Files.createTempFile(dir, "rom", ".gb"), bytes).toString());
+
+        assertEquals(2, image.getBankCount());
+        assertEquals(0x12, image.getBank(0).get(0x014F));
+        assertEquals(0x00, image.getBank(0).get(0x3FFF));
+        assertEquals(2L * RomImage.BANK_SIZE, image.getHeapBytes());
+    }
+}
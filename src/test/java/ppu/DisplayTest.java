@@ -0,0 +1,35 @@
+package ppu;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisplayTest {
+
+    @Test
+    void testRequestRefresh_paintsLatestFinishedFrame() {
+        var display = new Display(1);
+        display.setSize(160, 144);
+
+        display.getPixels()[0] = 0x123456;
+        display.requestRefresh();
+        // Next frame is drawn into another image
+        assertNotEquals(0x123456, display.getPixels()[0]);
+        display.getPixels()[0] = 0x654321;
+
+        assertEquals(0x123456, paint(display).getRGB(0, 0) & 0xFFFFFF);
+
+        display.requestRefresh();
+        assertEquals(0x654321, paint(display).getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    private BufferedImage paint(Display display) {
+        var target = new BufferedImage(160, 144, BufferedImage.TYPE_INT_RGB);
+        var graphics = target.createGraphics();
+        display.paint(graphics);
+        graphics.dispose();
+        return target;
+    }
+}
@@ -0,0 +1,24 @@
+package ppu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GPURegsManagerTest {
+
+    @Test
+    void testOnWrite_decodesLcdcAndPalettes() {
+        var regsManager = new GPURegsManager();
+        assertTrue(regsManager.isBackgroundTiles());
+
+        regsManager.onWrite(GPURegs.LCDC.address(), 0x93);
+        assertTrue(regsManager.isLCDOn());
+        assertFalse(regsManager.isBackgroundTiles());
+        assertTrue(regsManager.isSpritesEnabled());
+        assertFalse(regsManager.isWindowEnabled());
+
+        // Colour numbers 0-3 to shades 3, 2, 1, 0
+        regsManager.onWrite(GPURegs.BGP.address(), 0x1B);
+        assertArrayEquals(new int[]{0xFF000000, 0xFF606060, 0xFFC0C0C0, 0xFFFFFFFF}, regsManager.getBGPalette());
+    }
+}
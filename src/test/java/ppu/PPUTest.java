@@ -0,0 +1,165 @@
+package ppu;
+
+import cpu.interrupt.InterruptController;
+import cpu.interrupt.InterruptEnum;
+import cpu.scheduler.Event;
+import cpu.scheduler.Scheduler;
+import memory.MMU;
+import memory.MMUFixture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ppu.oam.SpriteManager;
+import ppu.sink.RingBufferFrameSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PPUTest {
+
+    // M-cycles per line
+    private static final int LINE = 114;
+
+    @TempDir
+    Path dir;
+
+    Scheduler scheduler;
+    MMU mmu;
+    InterruptController interruptController;
+    GPURegsManager regsManager;
+    RingBufferFrameSink frameSink;
+    PPU ppu;
+
+    @BeforeEach
+    void init() throws IOException {
+        scheduler = new Scheduler();
+        var tiles = new Tiles();
+        var sprites = new SpriteManager();
+        mmu = MMUFixture.createMMU(dir, new byte[MMUFixture.ROM_SIZE], sprites, tiles);
+        interruptController = mmu.getInterruptController();
+        regsManager = new GPURegsManager();
+        frameSink = new RingBufferFrameSink(3);
+        ppu = new PPU(regsManager, sprites, frameSink, tiles, scheduler, interruptController);
+        mmu.setPPU(ppu);
+    }
+
+    @Test
+    void testCatchUp_lyFollowsClockWithoutEvents() {
+        // No STAT sources, the first event is VBLANK
+        assertEquals(143L * LINE, scheduler.getDeadline(Event.PPU_MODE));
+
+        scheduler.advance(10 * LINE + 5);
+        assertEquals(10, ppu.getLY());
+        assertEquals(10L * LINE + Mode.OAM_READ.clocks, ppu.getNextModeChange());
+    }
+
+    @Test
+    void testInterruptDue_requestsVBlank() {
+        scheduler.advance(143 * LINE);
+
+        assertEquals(143, ppu.getLY());
+        assertEquals(InterruptEnum.VBLANK.get(), interruptController.getIF());
+    }
+
+    @Test
+    void testCatchUp_registersReadThroughMemoryFollowClock() {
+        scheduler.advance(20 * LINE + Mode.OAM_READ.clocks + 1);
+
+        assertEquals(20, mmu.get(GPURegs.LY.address()));
+        assertEquals(Mode.VRAM_READ.statIndex, mmu.get(GPURegs.STAT.address()) & 0x03);
+        // Nothing was requested on the way
+        assertEquals(0, interruptController.getIF());
+    }
+
+    @Test
+    void testOnRegisterWritten_schedulesStatSource() {
+        // HBLANK source
+        mmu.set(GPURegs.STAT.address(), 0x08);
+
+        assertEquals(Mode.OAM_READ.clocks + Mode.VRAM_READ.clocks, scheduler.getDeadline(Event.PPU_MODE));
+    }
+
+    @Test
+    void testOnRegisterWritten_schedulesLycCoincidence() {
+        mmu.set(GPURegs.LYC.address(), 20);
+        mmu.set(GPURegs.STAT.address(), 0x40);
+        var coincidence = 20 * LINE + Mode.OAM_READ.clocks + Mode.VRAM_READ.clocks;
+        assertEquals(coincidence, scheduler.getDeadline(Event.PPU_MODE));
+
+        scheduler.advance(coincidence);
+        assertEquals(InterruptEnum.LCD_STAT.get(), interruptController.getIF());
+        assertEquals(0x04, mmu.get(GPURegs.STAT.address()) & 0x04);
+        // Line 20 is not reached again before VBLANK
+        assertEquals(143L * LINE, scheduler.getDeadline(Event.PPU_MODE));
+    }
+
+    @Test
+    void testOnRegisterWritten_passedLycFallsBackToVBlank() {
+        scheduler.advance(10 * LINE);
+        mmu.set(GPURegs.STAT.address(), 0x40);
+        mmu.set(GPURegs.LYC.address(), 5);
+
+        assertEquals(143L * LINE, scheduler.getDeadline(Event.PPU_MODE));
+    }
+
+    @Test
+    void testVBlank_completesFrameIntoSink() {
+        scheduler.advance(143 * LINE);
+        assertEquals(1, ppu.getFrameCount());
+        assertEquals(1, frameSink.getFrameCount());
+
+        // The next frame is drawn into another buffer
+        assertNotSame(frameSink.getFrame(0), frameSink.getPixels());
+
+        scheduler.advance(154 * LINE);
+        assertEquals(2, ppu.getFrameCount());
+    }
+
+    @Test
+    void testBeforeWrite_linesBeforePaletteWriteKeepOldPalette() {
+        showTileZeroInColourOne();
+        mmu.set(GPURegs.BGP.address(), 0xE4);
+        var oldColour = regsManager.getBGPalette()[1];
+
+        // Line 72 was not drawn yet
+        scheduler.advance(72 * LINE + 1);
+        mmu.set(GPURegs.BGP.address(), 0x00);
+        var newColour = regsManager.getBGPalette()[1];
+        assertNotEquals(oldColour, newColour);
+
+        // Into the HBLANK of line 142, the scroll write draws every line left before VBLANK
+        scheduler.advance(70 * LINE + Mode.OAM_READ.clocks + Mode.VRAM_READ.clocks);
+        mmu.set(GPURegs.SCX.address(), 0x00);
+        assertEquals(oldColour, pixel(71, 0));
+        assertEquals(oldColour, pixel(71, 159));
+        assertEquals(newColour, pixel(72, 0));
+        assertEquals(newColour, pixel(142, 159));
+    }
+
+    @Test
+    void testBeforeWrite_statWriteDoesNotDrawPendingLines() {
+        showTileZeroInColourOne();
+        mmu.set(GPURegs.BGP.address(), 0xE4);
+        scheduler.advance(72 * LINE + 1);
+
+        mmu.set(GPURegs.STAT.address(), 0x08);
+        mmu.set(GPURegs.LYC.address(), 100);
+        assertEquals(0, pixel(10, 0));
+
+        mmu.set(GPURegs.SCX.address(), 0x00);
+        assertEquals(regsManager.getBGPalette()[1], pixel(10, 0));
+    }
+
+    // LCD and background on, tile data at 0x8000, the map is all tile 0
+    private void showTileZeroInColourOne() {
+        for (int row = 0; row < 8; row++)
+            mmu.set(0x8000 + row * 2, 0xFF);
+        mmu.set(GPURegs.LCDC.address(), 0x91);
+    }
+
+    private int pixel(int row, int col) {
+        return frameSink.getPixels()[row * 160 + col];
+    }
+}
@@ -0,0 +1,59 @@
+package ppu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TilesTest {
+
+    @Test
+    void testUpdateTile_decodesRowLeftmostPixelFirst() {
+        var vram = new byte[0x2000];
+        var tiles = new Tiles();
+        tiles.setVideoRAM(vram, 0);
+
+        // Tile 3, row 5
+        var address = 0x8000 + 3 * 16 + 5 * 2;
+        vram[address - 0x8000] = (byte) 0b10110001;
+        vram[address - 0x8000 + 1] = (byte) 0b01100011;
+        tiles.markDirty(address + 1);
+
+        var row = tiles.row(3, 5);
+        var expected = new int[]{1, 2, 3, 1, 0, 0, 2, 3};
+        for (int x = 0; x < 8; x++)
+            assertEquals(expected[x], tiles.getPixels()[row + x]);
+    }
+
+    @Test
+    void testUpdateTile_readsFromOffsetInBackingArray() {
+        var vram = new byte[0x2010];
+        var tiles = new Tiles();
+        tiles.setVideoRAM(vram, 0x10);
+
+        // Tile 0x17F, the last one, row 0
+        vram[0x10 + 0x17F0] = (byte) 0xFF;
+        tiles.markDirty(0x97F0);
+
+        var row = tiles.row(0x17F, 0);
+        for (int x = 0; x < 8; x++)
+            assertEquals(1, tiles.getPixels()[row + x]);
+    }
+
+    @Test
+    void testRow_decodesOnlyRowsMarkedDirty() {
+        var vram = new byte[0x2000];
+        var tiles = new Tiles();
+        tiles.setVideoRAM(vram, 0);
+
+        // Both bytes of row 0 written, decoded once on the read after them
+        vram[0] = (byte) 0x80;
+        tiles.markDirty(0x8000);
+        vram[1] = (byte) 0x80;
+        tiles.markDirty(0x8001);
+        assertEquals(3, tiles.getPixels()[tiles.row(0, 0)]);
+
+        // Not marked, the decoded row is kept
+        vram[0] = 0;
+        assertEquals(3, tiles.getPixels()[tiles.row(0, 0)]);
+    }
+}
@@ -0,0 +1,49 @@
+package ppu.oam;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpriteManagerTest {
+
+    private final int[] indices = new int[SpriteManager.MAX_SPRITES_PER_LINE];
+
+    @Test
+    void testGetSpritesOnLine_capsAtTenInOamOrder() {
+        var spriteManager = new SpriteManager();
+        // Sprites 5-16 on lines 20-27
+        for (int i = 5; i < 17; i++)
+            spriteManager.updateSprite(0xFE00 + i * 4, 20 + 16);
+
+        assertEquals(10, spriteManager.getSpritesOnLine(27, indices));
+        for (int i = 0; i < 10; i++)
+            assertEquals(5 + i, indices[i]);
+        assertEquals(0, spriteManager.getSpritesOnLine(28, indices));
+    }
+
+    @Test
+    void testUpdateSprite_movesSpriteBetweenLinesAndFollowsHeight() {
+        var spriteManager = new SpriteManager();
+        spriteManager.updateSprite(0xFE00 + 3 * 4, 10 + 16);
+        spriteManager.updateSprite(0xFE00 + 3 * 4, 100 + 16);
+
+        assertEquals(0, spriteManager.getSpritesOnLine(10, indices));
+        assertEquals(1, spriteManager.getSpritesOnLine(107, indices));
+        assertEquals(3, indices[0]);
+
+        spriteManager.setSpriteHeight(16);
+        assertEquals(1, spriteManager.getSpritesOnLine(115, indices));
+    }
+
+    @Test
+    void testLoad_indexesWholeOam() {
+        var oam = new byte[0xA0];
+        oam[39 * 4] = (byte) (143 + 16);
+
+        var spriteManager = new SpriteManager();
+        spriteManager.load(oam, 0);
+
+        assertEquals(1, spriteManager.getSpritesOnLine(150, indices));
+        assertEquals(39, indices[0]);
+    }
+}
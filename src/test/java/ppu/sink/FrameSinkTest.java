@@ -0,0 +1,48 @@
+package ppu.sink;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameSinkTest {
+
+    @Test
+    void testRingBuffer_keepsLastFrames() {
+        var sink = new RingBufferFrameSink(3);
+        for (int frame = 1; frame <= 4; frame++) {
+            sink.getPixels()[0] = frame;
+            sink.frameCompleted();
+        }
+
+        assertEquals(4, sink.getFrameCount());
+        assertEquals(4, sink.getFrame(0)[0]);
+        assertEquals(3, sink.getFrame(1)[0]);
+        // The oldest slot is the one being drawn into
+        assertThrows(IllegalStateException.class, () -> sink.getFrame(2));
+    }
+
+    @Test
+    void testRingBuffer_noFrameBeforeFirstCompleted() {
+        var sink = new RingBufferFrameSink(3);
+
+        assertThrows(IllegalStateException.class, () -> sink.getFrame(0));
+    }
+
+    @Test
+    void testHash_followsPixels() {
+        var sink = new FrameHashSink();
+        sink.frameCompleted();
+        var blank = sink.getLastHash();
+
+        sink.getPixels()[100] = 0xFFFFFF;
+        sink.frameCompleted();
+        assertNotEquals(blank, sink.getLastHash());
+
+        // Only RGB counts, the alpha byte of opaque ARGB colours is ignored
+        sink.getPixels()[100] = 0xFFFFFFFF;
+        var hash = sink.getLastHash();
+        sink.frameCompleted();
+        assertEquals(hash, sink.getLastHash());
+        assertEquals(3, sink.getFrameCount());
+    }
+}